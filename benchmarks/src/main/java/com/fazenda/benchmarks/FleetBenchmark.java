@@ -0,0 +1,61 @@
+package com.fazenda.benchmarks;
+
+import com.fazenda.FarmSimulation;
+import com.fazenda.VehicleFleet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class FleetBenchmark {
+
+    private static final double STEP = 1.0 / 60.0;
+
+    @Param({ "1024" })
+    public int mapSize;
+
+    @Param({ "1", "64", "512" })
+    public int vehicles;
+
+    private FarmSimulation sim;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sim = new FarmSimulation(mapSize);
+        sim.generateWorld();
+        sim.hitchImplement();
+
+        Random rng = new Random(42);
+        double span = (mapSize - 40) * 12.0;
+        for (int i = 1; i < vehicles; i++) {
+            sim.addVehicle(200 + rng.nextDouble() * span, 200 + rng.nextDouble() * span, rng.nextDouble() * 360);
+        }
+
+        VehicleFleet fleet = sim.fleet();
+        for (int i = 0; i < fleet.size(); i++) {
+            fleet.setControls(i, true, false, i % 2 == 0, i % 2 != 0);
+        }
+    }
+
+    @Benchmark
+    public double stepFleet() {
+        sim.step(STEP);
+        return sim.fleet().x(vehicles - 1);
+    }
+}
@@ -0,0 +1,137 @@
+package com.fazenda.benchmarks;
+
+import static com.fazenda.FarmSimulation.PLAYER;
+import static com.fazenda.FarmSimulation.TERRAIN_DIRT;
+import static com.fazenda.FarmSimulation.TERRAIN_PLANTED;
+import static com.fazenda.FarmSimulation.TERRAIN_WHEAT;
+import static com.fazenda.FarmSimulation.TILE_SIZE;
+import static com.fazenda.FarmSimulation.TOOL_PLOW;
+import static com.fazenda.FarmSimulation.TRAILER_DISTANCE;
+
+import com.fazenda.FarmSimulation;
+import com.fazenda.GrowthScheduler;
+import com.fazenda.TerrainStore;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class SimulationBenchmark {
+
+    private static final double STEP = 1.0 / 60.0;
+    private static final int LANE_START = 20;
+    private static final int LANE_LENGTH = 160;
+    private static final int LANE_HALF_WIDTH = 6;
+
+    @Param({ "200", "1024", "4096" })
+    public int mapSize;
+
+    @Param({ "0.1" })
+    public double plantedFraction;
+
+    private FarmSimulation sim;
+    private TerrainStore dormantTerrain;
+    private TerrainStore maturingTerrain;
+    private GrowthScheduler dormantGrowth;
+    private GrowthScheduler maturingGrowth;
+    private int[] plantedTiles;
+    private int laneRow;
+    private int laneEnd;
+    private int[] laneTiles;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        sim = new FarmSimulation(mapSize);
+        sim.generateWorld();
+
+        laneRow = mapSize / 2;
+        laneEnd = Math.min(mapSize - LANE_START, LANE_START + LANE_LENGTH);
+        laneTiles = new int[(2 * LANE_HALF_WIDTH + 1) * (laneEnd - LANE_START + 1)];
+        int n = 0;
+        for (int r = laneRow - LANE_HALF_WIDTH; r <= laneRow + LANE_HALF_WIDTH; r++) {
+            for (int c = LANE_START; c <= laneEnd; c++) {
+                laneTiles[n++] = sim.terrain().get(r, c);
+            }
+        }
+
+        dormantTerrain = new TerrainStore(mapSize);
+        maturingTerrain = new TerrainStore(mapSize);
+        dormantGrowth = new GrowthScheduler(dormantTerrain, new int[] { TERRAIN_PLANTED, TERRAIN_WHEAT },
+                new int[] { Integer.MAX_VALUE / 2 });
+
+        int planted = (int) (mapSize * (long) mapSize * plantedFraction);
+        plantedTiles = new int[planted];
+        Random rng = new Random(42);
+        for (int i = 0; i < planted; i++) {
+            int r = rng.nextInt(mapSize), c = rng.nextInt(mapSize);
+            plantedTiles[i] = r * mapSize + c;
+            dormantTerrain.set(r, c, TERRAIN_PLANTED);
+            dormantGrowth.plant(r, c);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        startLane();
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpMaturing() {
+        maturingGrowth = new GrowthScheduler(maturingTerrain, new int[] { TERRAIN_DIRT, TERRAIN_WHEAT },
+                new int[] { 1 });
+        for (int tile : plantedTiles) {
+            int r = tile / mapSize, c = tile % mapSize;
+            maturingTerrain.set(r, c, TERRAIN_DIRT);
+            maturingGrowth.plant(r, c);
+        }
+        maturingTerrain.drainDirtyChunks();
+    }
+
+    @Benchmark
+    public double stepWithTool() {
+        if (sim.tractorX() >= laneEnd * TILE_SIZE)
+            startLane();
+        sim.step(STEP);
+        return sim.tractorX();
+    }
+
+    @Benchmark
+    public int passDayNothingDue() {
+        return dormantGrowth.advanceDay();
+    }
+
+    @Benchmark
+    public int passDayAllMature() {
+        return maturingGrowth.advanceDay();
+    }
+
+    private void startLane() {
+        TerrainStore terrain = sim.terrain();
+        int n = 0;
+        for (int r = laneRow - LANE_HALF_WIDTH; r <= laneRow + LANE_HALF_WIDTH; r++) {
+            for (int c = LANE_START; c <= laneEnd; c++) {
+                terrain.set(r, c, laneTiles[n++]);
+            }
+        }
+
+        double x = LANE_START * TILE_SIZE + TRAILER_DISTANCE, y = (laneRow + 0.5) * TILE_SIZE;
+        sim.fleet().place(PLAYER, x, y, 0, x - TRAILER_DISTANCE, y, 0, true, TOOL_PLOW);
+        sim.setControls(true, false, false, false);
+    }
+}
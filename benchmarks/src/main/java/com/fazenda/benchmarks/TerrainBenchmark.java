@@ -0,0 +1,163 @@
+package com.fazenda.benchmarks;
+
+import static com.fazenda.FarmSimulation.TERRAIN_GRASS;
+import static com.fazenda.FarmSimulation.TERRAIN_GRAVEL_ROAD;
+
+import com.fazenda.DistanceField;
+import com.fazenda.FarmSimulation;
+import com.fazenda.TerrainStore;
+import com.fazenda.TileSelector;
+import com.fazenda.TransitionMask;
+import com.fazenda.WorldGenerator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class TerrainBenchmark {
+
+    private static final int WINDOW_RAD = 65;
+
+    @Param({ "200", "1024", "4096" })
+    public int mapSize;
+
+    private TerrainStore terrain;
+    private TransitionMask transitions;
+    private int centerRow, centerCol;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        FarmSimulation sim = new FarmSimulation(mapSize);
+        sim.generateWorld();
+        terrain = sim.terrain();
+        transitions = new TransitionMask(terrain);
+        centerRow = FarmSimulation.SHED_Y + FarmSimulation.SHED_H + 3;
+        centerCol = FarmSimulation.SHED_X;
+    }
+
+    @Benchmark
+    public double noiseWindow() {
+        double sum = 0;
+        for (int r = centerRow - WINDOW_RAD; r <= centerRow + WINDOW_RAD; r++) {
+            for (int c = centerCol - WINDOW_RAD; c <= centerCol + WINDOW_RAD; c++) {
+                sum += WorldGenerator.getNoise(r, c);
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int hasNeighborWindow() {
+        int hits = 0;
+        for (int r = centerRow - WINDOW_RAD; r <= centerRow + WINDOW_RAD; r++) {
+            for (int c = centerCol - WINDOW_RAD; c <= centerCol + WINDOW_RAD; c++) {
+                if (terrain.inBounds(r, c)) {
+                    if (terrain.hasNeighbor(r, c, TERRAIN_GRAVEL_ROAD))
+                        hits++;
+                    if (terrain.hasNeighbor(r, c, TERRAIN_GRASS))
+                        hits++;
+                }
+            }
+        }
+        return hits;
+    }
+
+    @Benchmark
+    public int transitionMaskWindow() {
+        int hits = 0;
+        for (int r = centerRow - WINDOW_RAD; r <= centerRow + WINDOW_RAD; r++) {
+            for (int c = centerCol - WINDOW_RAD; c <= centerCol + WINDOW_RAD; c++) {
+                if (terrain.inBounds(r, c)) {
+                    int edges = transitions.get(r, c);
+                    if ((edges & TransitionMask.NEAR_GRAVEL) != 0)
+                        hits++;
+                    if ((edges & TransitionMask.NEAR_GRASS) != 0)
+                        hits++;
+                }
+            }
+        }
+        return hits;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public TransitionMask rebuildTransitionMask() {
+        transitions.rebuild();
+        return transitions;
+    }
+
+    @Benchmark
+    public int tileSelectionWindow() {
+        int acc = 0;
+        for (int r = centerRow - WINDOW_RAD; r <= centerRow + WINDOW_RAD; r++) {
+            for (int c = centerCol - WINDOW_RAD; c <= centerCol + WINDOW_RAD; c++) {
+                acc += TileSelector.select(terrain, r, c);
+            }
+        }
+        return acc;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int distanceToRoadBruteForce() {
+        int near = 0;
+        for (int r = 0; r < mapSize; r++) {
+            for (int c = 0; c < mapSize; c++) {
+                if (terrain.get(r, c) != TERRAIN_GRAVEL_ROAD && bruteForceDistance(r, c, TERRAIN_GRAVEL_ROAD, 2) == 1)
+                    near++;
+            }
+        }
+        return near;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int distanceToRoadField() {
+        DistanceField field = DistanceField.chebyshev(terrain, TERRAIN_GRAVEL_ROAD, 2);
+        int near = 0;
+        for (int r = 0; r < mapSize; r++) {
+            for (int c = 0; c < mapSize; c++) {
+                if (field.distance(r, c) == 1)
+                    near++;
+            }
+        }
+        return near;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public TerrainStore generateWorld() {
+        TerrainStore fresh = new TerrainStore(mapSize);
+        WorldGenerator.generate(fresh);
+        return fresh;
+    }
+
+    private int bruteForceDistance(int r, int c, int terrainType, int maxDist) {
+        for (int d = 1; d <= maxDist; d++) {
+            for (int dy = -d; dy <= d; dy++) {
+                for (int dx = -d; dx <= d; dx++) {
+                    int nr = r + dy;
+                    int nc = c + dx;
+                    if (terrain.inBounds(nr, nc) && terrain.get(nr, nc) == terrainType)
+                        return d;
+                }
+            }
+        }
+        return 999;
+    }
+}
@@ -0,0 +1,88 @@
+package com.fazenda;
+
+import java.util.Arrays;
+
+public final class DistanceField {
+
+    public static final int FAR = 255;
+
+    private final int size;
+    private final int maxDistance;
+    private final byte[] distances;
+
+    private DistanceField(int size, int maxDistance) {
+        this.size = size;
+        this.maxDistance = maxDistance;
+        this.distances = new byte[size * size];
+    }
+
+    public static DistanceField chebyshev(TerrainStore terrain, int type, int maxDistance) {
+        int size = terrain.size(), cps = terrain.chunksPerSide();
+        int cap = Math.min(Math.max(maxDistance, 0) + 1, FAR);
+        DistanceField field = new DistanceField(size, cap - 1);
+        short[] tiles = terrain.rawTiles();
+        byte[] d = field.distances;
+
+        for (int r = 0; r < size; r++) {
+            int row = r * size;
+            for (int c = 0; c < size; c++) {
+                int best;
+                if (TerrainStore.typeOf(tiles[TerrainStore.indexOf(cps, r, c)]) == type) {
+                    best = 0;
+                } else {
+                    best = cap;
+                    if (c > 0)
+                        best = Math.min(best, (d[row + c - 1] & 0xff) + 1);
+                    if (r > 0) {
+                        int up = row - size + c;
+                        best = Math.min(best, (d[up] & 0xff) + 1);
+                        if (c > 0)
+                            best = Math.min(best, (d[up - 1] & 0xff) + 1);
+                        if (c < size - 1)
+                            best = Math.min(best, (d[up + 1] & 0xff) + 1);
+                    }
+                }
+                d[row + c] = (byte) Math.min(best, cap);
+            }
+        }
+
+        for (int r = size - 1; r >= 0; r--) {
+            int row = r * size;
+            for (int c = size - 1; c >= 0; c--) {
+                int best = d[row + c] & 0xff;
+                if (best == 0)
+                    continue;
+
+                if (c < size - 1)
+                    best = Math.min(best, (d[row + c + 1] & 0xff) + 1);
+                if (r < size - 1) {
+                    int down = row + size + c;
+                    best = Math.min(best, (d[down] & 0xff) + 1);
+                    if (c > 0)
+                        best = Math.min(best, (d[down - 1] & 0xff) + 1);
+                    if (c < size - 1)
+                        best = Math.min(best, (d[down + 1] & 0xff) + 1);
+                }
+                d[row + c] = (byte) Math.min(best, cap);
+            }
+        }
+        return field;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int maxDistance() {
+        return maxDistance;
+    }
+
+    public int distance(int r, int c) {
+        int d = distances[r * size + c] & 0xff;
+        return d > maxDistance ? FAR : d;
+    }
+
+    boolean sameDistances(DistanceField other) {
+        return size == other.size && maxDistance == other.maxDistance && Arrays.equals(distances, other.distances);
+    }
+}
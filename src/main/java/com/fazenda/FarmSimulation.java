@@ -0,0 +1,348 @@
+package com.fazenda;
+
+public class FarmSimulation {
+
+    public interface DayListener {
+        void dayPassed(int grownTiles);
+    }
+
+    public static final int TILE_SIZE = 12;
+    public static final int MIN_MAP_SIZE = 128;
+
+    public static final int TERRAIN_GRASS = 0;
+    public static final int TERRAIN_DIRT = 1;
+    public static final int TERRAIN_PLANTED = 2;
+    public static final int TERRAIN_GRAVEL_ROAD = 3;
+    public static final int TERRAIN_LIGHT_DIRT = 4;
+    public static final int TERRAIN_WHEAT = 5;
+
+    public static final int TOOL_PLOW = 0;
+    public static final int TOOL_PLANTER = 1;
+
+    public static final int SHED_X = 60;
+    public static final int SHED_Y = 60;
+    public static final int SHED_W = 6;
+    public static final int SHED_H = 8;
+
+    public static final double MAX_SPEED_KMH = 30.0;
+    public static final double MAX_SPEED = 2.6;
+
+    public static final double TRAILER_DISTANCE = 60.0;
+    private static final double TIME_SCALE = 300.0;
+
+    public static final int PLAYER = 0;
+
+    private final int mapSize;
+    private final TerrainStore terrain;
+    private final GrowthScheduler growth;
+    private final VehicleFleet fleet;
+    private final ImplementFootprint footprint = new ImplementFootprint();
+    private final FieldWorkers workers;
+    private int[] changedCols = new int[16];
+
+    private double gameTimeSeconds = 6 * 3600;
+    private int gameDay = 1;
+    private int gameMonth = 1;
+    private int gameYear = 1;
+
+    private double nightAlpha = 0.0;
+    private boolean isNearShed = false;
+
+    private DayListener dayListener;
+
+    public FarmSimulation(int mapSize) {
+        this.mapSize = mapSize;
+        this.terrain = new TerrainStore(mapSize);
+        this.growth = new GrowthScheduler(terrain, new int[] { TERRAIN_PLANTED, TERRAIN_WHEAT }, new int[] { 1 });
+        this.fleet = new VehicleFleet(mapSize, 8);
+        fleet.add(500, 500, 45);
+        fleet.place(PLAYER, 500, 500, 45, 430, 430, 45, false, TOOL_PLOW);
+        this.workers = new FieldWorkers(fleet, new PathPlanner(terrain));
+    }
+
+    public void generateWorld() {
+        WorldGenerator.generate(terrain);
+    }
+
+    public void setDayListener(DayListener dayListener) {
+        this.dayListener = dayListener;
+    }
+
+    public void setControls(boolean accelerate, boolean brake, boolean steerLeft, boolean steerRight) {
+        fleet.setControls(PLAYER, accelerate, brake, steerLeft, steerRight);
+    }
+
+    public int addVehicle(double x, double y, double angle) {
+        int vehicle = fleet.add(x, y, angle);
+        fleet.hitch(vehicle);
+        return vehicle;
+    }
+
+    public int addFieldWorker(int r0, int c0, int r1, int c1) {
+        r0 = Math.max(r0, PathPlanner.EDGE);
+        c0 = Math.max(c0, 17);
+        r1 = Math.min(r1, mapSize - PathPlanner.EDGE - 1);
+        c1 = Math.min(c1, mapSize - PathPlanner.EDGE - 1);
+        if (r1 - r0 < FieldWorkers.SPACING || c1 - c0 < FieldWorkers.SPACING)
+            return -1;
+        if (r1 >= PathPlanner.BLOCKED_MIN_ROW && r0 <= PathPlanner.BLOCKED_MAX_ROW
+                && c1 >= PathPlanner.BLOCKED_MIN_COL && c0 <= PathPlanner.BLOCKED_MAX_COL)
+            return -1;
+
+        return workers.add(r0, c0, r1, c1);
+    }
+
+    public int fieldWorkers() {
+        return workers.size();
+    }
+
+    public int parkedFieldWorkers() {
+        return workers.parked();
+    }
+
+    public boolean canCouple() {
+        return fleet.canCouple(PLAYER);
+    }
+
+    public void toggleCoupling() {
+        fleet.toggleCoupling(PLAYER);
+    }
+
+    public void hitchImplement() {
+        fleet.hitch(PLAYER);
+    }
+
+    public void toggleTool() {
+        fleet.toggleTool(PLAYER);
+    }
+
+    public void sleep() {
+        gameTimeSeconds = 6 * 3600;
+        gameDay++;
+        passDay();
+    }
+
+    public void step(double dt) {
+        workers.drive();
+        fleet.step(dt);
+
+        gameTimeSeconds += dt * TIME_SCALE;
+
+        if (gameTimeSeconds >= 86400) {
+            gameTimeSeconds = 0;
+            gameDay++;
+            passDay();
+
+            if (gameDay > 30) {
+                gameDay = 1;
+                gameMonth++;
+                if (gameMonth > 12) {
+                    gameMonth = 1;
+                    gameYear++;
+                }
+            }
+        }
+
+        double hour = (gameTimeSeconds / 3600.0) % 24;
+
+        if (hour >= 4 && hour < 6) {
+            double progress = (hour - 4.0) / 2.0;
+
+            nightAlpha = 0.6 * (1.0 - progress);
+        }
+
+        else if (hour >= 6 && hour < 18) {
+            nightAlpha = 0.0;
+        }
+
+        else if (hour >= 18 && hour < 20) {
+            double progress = (hour - 18.0) / 2.0;
+            nightAlpha = 0.6 * progress;
+        }
+
+        else {
+            nightAlpha = 0.6;
+        }
+
+        double shedCenterX = (SHED_X + SHED_W / 2.0) * TILE_SIZE;
+        double shedCenterY = (SHED_Y + SHED_H / 2.0) * TILE_SIZE;
+
+        double distToShed = Math.hypot(fleet.x(PLAYER) - shedCenterX, fleet.y(PLAYER) - shedCenterY);
+
+        isNearShed = (distToShed < 160);
+
+        for (int i = 0; i < fleet.size(); i++) {
+            if (fleet.isAttached(i) && fleet.isLowered(i) && fleet.trailerMoved(i))
+                applyTool(i);
+        }
+    }
+
+    private void applyTool(int vehicle) {
+        int toolType = fleet.tool(vehicle);
+        int from = toolType == TOOL_PLOW ? TERRAIN_GRASS : TERRAIN_DIRT;
+        int to = toolType == TOOL_PLOW ? TERRAIN_DIRT : TERRAIN_PLANTED;
+
+        int rows = footprint.sweep(fleet.prevTrailerX(vehicle), fleet.prevTrailerY(vehicle),
+                fleet.prevTrailerAngle(vehicle), fleet.trailerX(vehicle), fleet.trailerY(vehicle),
+                fleet.trailerAngle(vehicle), 5, 17, mapSize - 6, mapSize - 6);
+        if (rows == 0)
+            return;
+
+        terrain.beginBatch();
+        for (int k = 0; k < rows; k++) {
+            int r = footprint.row(k), c0 = footprint.colStart(k), c1 = footprint.colEnd(k);
+            if (c1 < c0)
+                continue;
+
+            if (changedCols.length < c1 - c0 + 1)
+                changedCols = new int[c1 - c0 + 1];
+            int changed = terrain.replaceSpan(r, c0, c1, from, to, changedCols);
+            if (to == TERRAIN_PLANTED) {
+                for (int j = 0; j < changed; j++) {
+                    growth.plant(r, changedCols[j]);
+                }
+            }
+        }
+        terrain.endBatch();
+    }
+
+    private void passDay() {
+        int grown = growth.advanceDay();
+        if (grown > 0) {
+            System.out.println("O tempo passou... A colheita está pronta!");
+        }
+        if (dayListener != null) {
+            dayListener.dayPassed(grown);
+        }
+    }
+
+    public WorldSave.State toSaveState() {
+        WorldSave.State state = new WorldSave.State();
+        state.tractorX = fleet.x(PLAYER);
+        state.tractorY = fleet.y(PLAYER);
+        state.angle = fleet.angle(PLAYER);
+        state.trailerX = fleet.trailerX(PLAYER);
+        state.trailerY = fleet.trailerY(PLAYER);
+        state.trailerAngle = fleet.trailerAngle(PLAYER);
+        state.isAttached = fleet.isAttached(PLAYER);
+        state.toolType = fleet.tool(PLAYER);
+        state.gameTimeSeconds = gameTimeSeconds;
+        state.gameDay = gameDay;
+        state.gameMonth = gameMonth;
+        state.gameYear = gameYear;
+        return state;
+    }
+
+    public void applySaveState(WorldSave.State state) {
+        fleet.place(PLAYER, state.tractorX, state.tractorY, state.angle, state.trailerX, state.trailerY,
+                state.trailerAngle, state.isAttached, state.toolType);
+        gameTimeSeconds = state.gameTimeSeconds;
+        gameDay = state.gameDay;
+        gameMonth = state.gameMonth;
+        gameYear = state.gameYear;
+    }
+
+    public int mapSize() {
+        return mapSize;
+    }
+
+    public TerrainStore terrain() {
+        return terrain;
+    }
+
+    public GrowthScheduler growth() {
+        return growth;
+    }
+
+    public VehicleFleet fleet() {
+        return fleet;
+    }
+
+    public double tractorX() {
+        return fleet.x(PLAYER);
+    }
+
+    public double tractorY() {
+        return fleet.y(PLAYER);
+    }
+
+    public double tractorX(double alpha) {
+        return fleet.x(PLAYER, alpha);
+    }
+
+    public double tractorY(double alpha) {
+        return fleet.y(PLAYER, alpha);
+    }
+
+    public double smoothedAngle(double alpha) {
+        return fleet.smoothedAngle(PLAYER, alpha);
+    }
+
+    public double trailerX(double alpha) {
+        return fleet.trailerX(PLAYER, alpha);
+    }
+
+    public double trailerY(double alpha) {
+        return fleet.trailerY(PLAYER, alpha);
+    }
+
+    public double trailerAngle(double alpha) {
+        return fleet.trailerAngle(PLAYER, alpha);
+    }
+
+    public double angle() {
+        return fleet.angle(PLAYER);
+    }
+
+    public double smoothedAngle() {
+        return fleet.smoothedAngle(PLAYER);
+    }
+
+    public double currentSpeed() {
+        return fleet.speed(PLAYER);
+    }
+
+    public double trailerX() {
+        return fleet.trailerX(PLAYER);
+    }
+
+    public double trailerY() {
+        return fleet.trailerY(PLAYER);
+    }
+
+    public double trailerAngle() {
+        return fleet.trailerAngle(PLAYER);
+    }
+
+    public boolean isAttached() {
+        return fleet.isAttached(PLAYER);
+    }
+
+    public int currentToolType() {
+        return fleet.tool(PLAYER);
+    }
+
+    public double gameTimeSeconds() {
+        return gameTimeSeconds;
+    }
+
+    public int gameDay() {
+        return gameDay;
+    }
+
+    public int gameMonth() {
+        return gameMonth;
+    }
+
+    public int gameYear() {
+        return gameYear;
+    }
+
+    public double nightAlpha() {
+        return nightAlpha;
+    }
+
+    public boolean isNearShed() {
+        return isNearShed;
+    }
+}
@@ -0,0 +1,203 @@
+package com.fazenda;
+
+import static com.fazenda.FarmSimulation.SHED_H;
+import static com.fazenda.FarmSimulation.SHED_W;
+import static com.fazenda.FarmSimulation.SHED_X;
+import static com.fazenda.FarmSimulation.SHED_Y;
+import static com.fazenda.FarmSimulation.TILE_SIZE;
+import static com.fazenda.FarmSimulation.TOOL_PLOW;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+final class FieldWorkers {
+
+    static final int SPACING = 6;
+    static final int GATE_ROW = SHED_Y + SHED_H + PathPlanner.CLEARANCE + 2;
+    static final int GATE_COL = SHED_X + SHED_W / 2;
+
+    private static final int OUTBOUND = 0;
+    private static final int FIELD = 1;
+    private static final int RETURN = 2;
+    private static final int PARKED = 3;
+
+    static final double REACH = 3 * TILE_SIZE;
+    private static final double ARRIVE = 8 * TILE_SIZE;
+    static final double TURN_SPEED = 0.8;
+    static final double TURN_RADIUS = 180 / (1.2 * Math.PI);
+    static final double OPEN_BELOW = 1.1;
+    static final double OPEN_UNTIL = 1.5;
+    private static final int STUCK_STEPS = 30;
+    private static final int REVERSE_STEPS = 90;
+    private static final int PLAN_STEPS = 15;
+
+    private static final class Worker {
+        final int vehicle;
+        final int r0, c0, r1, c1;
+        int leg = OUTBOUND;
+        int[] route;
+        int waypoint;
+        boolean opening;
+        int stuckSteps;
+        int reverseSteps;
+        int planSteps;
+        CompletableFuture<int[]> pending;
+
+        Worker(int vehicle, int r0, int c0, int r1, int c1) {
+            this.vehicle = vehicle;
+            this.r0 = r0;
+            this.c0 = c0;
+            this.r1 = r1;
+            this.c1 = c1;
+        }
+    }
+
+    private final VehicleFleet fleet;
+    private final PathPlanner planner;
+    private final List<Worker> workers = new ArrayList<>();
+
+    FieldWorkers(VehicleFleet fleet, PathPlanner planner) {
+        this.fleet = fleet;
+        this.planner = planner;
+    }
+
+    int size() {
+        return workers.size();
+    }
+
+    int parked() {
+        int n = 0;
+        for (int i = 0; i < workers.size(); i++) {
+            if (workers.get(i).leg == PARKED)
+                n++;
+        }
+        return n;
+    }
+
+    int add(int r0, int c0, int r1, int c1) {
+        int vehicle = fleet.add(GATE_COL * TILE_SIZE, GATE_ROW * TILE_SIZE, 0);
+        fleet.hitch(vehicle);
+        fleet.setLowered(vehicle, false);
+
+        Worker w = new Worker(vehicle, r0, c0, r1, c1);
+        w.pending = planner.route(GATE_ROW, GATE_COL, r0, c0);
+        workers.add(w);
+        return vehicle;
+    }
+
+    void drive() {
+        for (int i = 0; i < workers.size(); i++) {
+            Worker w = workers.get(i);
+            if (w.pending != null) {
+                if (++w.planSteps < PLAN_STEPS) {
+                    stop(w);
+                    continue;
+                }
+
+                w.route = awaitRoute(w);
+                w.pending = null;
+                w.planSteps = 0;
+                w.waypoint = 1;
+                if (w.route == null) {
+                    System.err.println("Sem rota para o trator " + w.vehicle + "; estacionando.");
+                    w.leg = PARKED;
+                }
+            }
+
+            if (w.leg == PARKED) {
+                stop(w);
+                continue;
+            }
+
+            if (w.waypoint * 2 >= w.route.length) {
+                finishLeg(w);
+                continue;
+            }
+
+            if (w.reverseSteps > 0) {
+                w.reverseSteps--;
+                fleet.setControls(w.vehicle, false, true, false, false);
+                continue;
+            }
+
+            double tx = w.route[w.waypoint * 2 + 1] * TILE_SIZE, ty = w.route[w.waypoint * 2] * TILE_SIZE;
+            double dx = tx - fleet.x(w.vehicle), dy = ty - fleet.y(w.vehicle), dist = Math.hypot(dx, dy);
+            if (dist < REACH) {
+                w.waypoint++;
+                continue;
+            }
+
+            double heading = Math.toDegrees(Math.atan2(dy, dx)) - fleet.angle(w.vehicle);
+            while (heading < -180)
+                heading += 360;
+            while (heading > 180)
+                heading -= 360;
+
+            double speed = fleet.speed(w.vehicle);
+            boolean arriving = (w.waypoint + 1) * 2 >= w.route.length && dist < ARRIVE;
+            boolean slow = (Math.abs(heading) > 30 || arriving) && speed > TURN_SPEED;
+
+            double radius = TURN_RADIUS * Math.max(Math.abs(speed), 1);
+            double rad = Math.toRadians(fleet.angle(w.vehicle)), side = heading < 0 ? -radius : radius;
+            double fromCenter = Math.hypot(dx + Math.sin(rad) * side, dy - Math.cos(rad) * side) / radius;
+            if (fromCenter < OPEN_BELOW)
+                w.opening = true;
+            else if (fromCenter > OPEN_UNTIL)
+                w.opening = false;
+
+            boolean steer = !w.opening;
+            if (w.leg == FIELD)
+                fleet.setLowered(w.vehicle, Math.abs(heading) < 30);
+            w.stuckSteps = !slow && Math.abs(speed) < 0.05 ? w.stuckSteps + 1 : 0;
+            if (w.stuckSteps > STUCK_STEPS) {
+                w.stuckSteps = 0;
+                w.reverseSteps = REVERSE_STEPS;
+            }
+            fleet.setControls(w.vehicle, !slow, slow, steer && heading < -2, steer && heading > 2);
+        }
+    }
+
+    private static int[] awaitRoute(Worker w) {
+        try {
+            return w.pending.join();
+        } catch (CompletionException | CancellationException e) {
+            System.err.println("Falha ao planejar rota para o trator " + w.vehicle + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void stop(Worker w) {
+        fleet.setControls(w.vehicle, false, fleet.speed(w.vehicle) > 0.05, false, false);
+    }
+
+    private void finishLeg(Worker w) {
+        switch (w.leg) {
+            case OUTBOUND:
+                w.leg = FIELD;
+                w.route = PathPlanner.coverage(w.r0, w.c0, w.r1, w.c1, SPACING);
+                w.waypoint = 0;
+                fleet.setLowered(w.vehicle, true);
+                break;
+            case FIELD:
+                w.leg = RETURN;
+                fleet.setLowered(w.vehicle, false);
+                w.pending = planner.route(w.route[w.route.length - 2], w.route[w.route.length - 1], GATE_ROW,
+                        GATE_COL);
+                break;
+            case RETURN:
+                if (fleet.tool(w.vehicle) == TOOL_PLOW) {
+                    fleet.toggleTool(w.vehicle);
+                    w.leg = OUTBOUND;
+                    w.pending = planner.route(GATE_ROW, GATE_COL, w.r0, w.c0);
+                } else {
+                    w.leg = PARKED;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+}
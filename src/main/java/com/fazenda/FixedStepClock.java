@@ -0,0 +1,28 @@
+package com.fazenda;
+
+public class FixedStepClock {
+
+    private static final double MAX_FRAME_SECONDS = 0.25;
+
+    private final double stepSeconds;
+    private double accumulator = 0;
+
+    public FixedStepClock(double hz) {
+        this.stepSeconds = 1.0 / hz;
+    }
+
+    public double stepSeconds() {
+        return stepSeconds;
+    }
+
+    public int advance(double frameSeconds) {
+        accumulator += Math.min(Math.max(frameSeconds, 0), MAX_FRAME_SECONDS);
+        int steps = (int) (accumulator / stepSeconds);
+        accumulator -= steps * stepSeconds;
+        return steps;
+    }
+
+    public double alpha() {
+        return accumulator / stepSeconds;
+    }
+}
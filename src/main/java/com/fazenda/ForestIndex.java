@@ -0,0 +1,149 @@
+package com.fazenda;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+class ForestIndex {
+
+    static final int CHUNK_SIZE = TerrainStore.CHUNK_SIZE;
+
+    private static final double TREE_THRESHOLD = 0.58;
+    private static final int MAX_CACHED_CHUNKS = 512;
+
+    private static final class Chunk {
+        final int count;
+        final int[] rows;
+        final int[] cols;
+        final double[] noise;
+
+        Chunk(int count, int[] rows, int[] cols, double[] noise) {
+            this.count = count;
+            this.rows = rows;
+            this.cols = cols;
+            this.noise = noise;
+        }
+    }
+
+    private static final Chunk EMPTY = new Chunk(0, new int[0], new int[0], new double[0]);
+
+    private final int mapSize;
+    private final int tileSize;
+
+    private final LinkedHashMap<Long, Chunk> chunks = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Chunk> eldest) {
+            return size() > MAX_CACHED_CHUNKS;
+        }
+    };
+
+    private final IsoView view = new IsoView();
+
+    private int visibleCount = 0;
+    private int[] visibleRows = new int[256];
+    private int[] visibleCols = new int[256];
+    private double[] visibleNoise = new double[256];
+
+    ForestIndex(int mapSize, int tileSize) {
+        this.mapSize = mapSize;
+        this.tileSize = tileSize;
+    }
+
+    int collect(double minX, double minY, double maxX, double maxY) {
+        view.cover(minX, minY, maxX, maxY, CHUNK_SIZE * tileSize);
+
+        int n = 0;
+        for (int cr = view.firstRow(); cr <= view.lastRow(); cr++) {
+            for (int cc = view.colStart(cr); cc <= view.colEnd(cr); cc++) {
+                Chunk chunk = chunk(cr, cc);
+                for (int i = 0; i < chunk.count; i++) {
+                    int r = chunk.rows[i], c = chunk.cols[i];
+                    double ix = (c - r) * tileSize, iy = (c + r) * tileSize / 2.0;
+                    if (ix <= minX || ix >= maxX || iy <= minY || iy >= maxY)
+                        continue;
+
+                    ensureCapacity(n + 1);
+                    visibleRows[n] = r;
+                    visibleCols[n] = c;
+                    visibleNoise[n] = chunk.noise[i];
+                    n++;
+                }
+            }
+        }
+
+        visibleCount = n;
+        return n;
+    }
+
+    int visibleCount() {
+        return visibleCount;
+    }
+
+    int row(int i) {
+        return visibleRows[i];
+    }
+
+    int col(int i) {
+        return visibleCols[i];
+    }
+
+    double noise(int i) {
+        return visibleNoise[i];
+    }
+
+    private Chunk chunk(int cr, int cc) {
+        long key = ((long) cr << 32) | (cc & 0xffffffffL);
+        Chunk chunk = chunks.get(key);
+        if (chunk == null) {
+            chunk = build(cr, cc);
+            chunks.put(key, chunk);
+        }
+        return chunk;
+    }
+
+    private Chunk build(int cr, int cc) {
+        int r0 = cr * CHUNK_SIZE, c0 = cc * CHUNK_SIZE;
+        if (r0 >= 0 && r0 + CHUNK_SIZE <= mapSize && c0 >= 12 && c0 + CHUNK_SIZE <= mapSize)
+            return EMPTY;
+
+        int[] rows = new int[CHUNK_SIZE * CHUNK_SIZE];
+        int[] cols = new int[CHUNK_SIZE * CHUNK_SIZE];
+        double[] noise = new double[CHUNK_SIZE * CHUNK_SIZE];
+        int count = 0;
+
+        for (int d = 0; d <= 2 * (CHUNK_SIZE - 1); d++) {
+            for (int dr = Math.max(0, d - CHUNK_SIZE + 1); dr <= Math.min(d, CHUNK_SIZE - 1); dr++) {
+                int r = r0 + dr, c = c0 + d - dr;
+                if (!isForest(r, c))
+                    continue;
+
+                double n = WorldGenerator.getNoise(r, c);
+                if (n <= TREE_THRESHOLD)
+                    continue;
+
+                rows[count] = r;
+                cols[count] = c;
+                noise[count] = n;
+                count++;
+            }
+        }
+
+        if (count == 0)
+            return EMPTY;
+        return new Chunk(count, Arrays.copyOf(rows, count), Arrays.copyOf(cols, count), Arrays.copyOf(noise, count));
+    }
+
+    private boolean isForest(int r, int c) {
+        return !(c >= 0 && c < 12) && !(r >= 0 && r < mapSize && c >= 12 && c < mapSize);
+    }
+
+    private void ensureCapacity(int n) {
+        if (n <= visibleRows.length)
+            return;
+
+        int cap = Math.max(n, visibleRows.length * 2);
+        visibleRows = Arrays.copyOf(visibleRows, cap);
+        visibleCols = Arrays.copyOf(visibleCols, cap);
+        visibleNoise = Arrays.copyOf(visibleNoise, cap);
+    }
+}
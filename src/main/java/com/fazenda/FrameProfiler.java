@@ -0,0 +1,189 @@
+package com.fazenda;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+
+public class FrameProfiler {
+
+    public static final int UPDATE = 0;
+    public static final int TERRAIN = 1;
+    public static final int TREES = 2;
+    public static final int SHED = 3;
+    public static final int MACHINES = 4;
+    public static final int LIGHTS = 5;
+    public static final int MINIMAP = 6;
+    public static final int HUD = 7;
+    public static final int SECTION_COUNT = 8;
+
+    public static final String[] SECTION_NAMES = { "update", "terrain", "trees", "shed", "machines", "lights",
+            "minimap", "hud" };
+
+    private static final int WINDOW = 240;
+
+    private final com.sun.management.ThreadMXBean threadBean;
+
+    private final long[] frameNanos = new long[WINDOW];
+    private final long[] drawCalls = new long[WINDOW];
+    private final long[] allocatedBytes = new long[WINDOW];
+    private final long[][] sectionNanos = new long[SECTION_COUNT][WINDOW];
+    private final long[] sorted = new long[WINDOW];
+
+    private final long[] sectionStart = new long[SECTION_COUNT];
+    private final long[] currentSection = new long[SECTION_COUNT];
+    private long currentDraws;
+    private long lastFrameEnd;
+    private long lastAllocated;
+    private boolean inFrame = false;
+
+    private int head = 0;
+    private int count = 0;
+    private long totalFrames = 0;
+
+    public FrameProfiler() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            threadBean = (com.sun.management.ThreadMXBean) bean;
+            threadBean.setThreadAllocatedMemoryEnabled(true);
+        } else {
+            threadBean = null;
+        }
+    }
+
+    public void beginFrame() {
+        if (inFrame)
+            return;
+
+        inFrame = true;
+        Arrays.fill(currentSection, 0L);
+        currentDraws = 0;
+    }
+
+    public void begin(int section) {
+        sectionStart[section] = System.nanoTime();
+    }
+
+    public void end(int section) {
+        currentSection[section] += System.nanoTime() - sectionStart[section];
+    }
+
+    public void countDraws(int draws) {
+        currentDraws += draws;
+    }
+
+    public void endFrame() {
+        long now = System.nanoTime();
+        long allocated = allocatedBytes();
+        inFrame = false;
+
+        if (lastFrameEnd == 0) {
+            lastFrameEnd = now;
+            lastAllocated = allocated;
+            return;
+        }
+
+        frameNanos[head] = now - lastFrameEnd;
+        drawCalls[head] = currentDraws;
+        allocatedBytes[head] = threadBean != null ? allocated - lastAllocated : -1;
+        lastFrameEnd = now;
+        lastAllocated = allocated;
+        for (int s = 0; s < SECTION_COUNT; s++) {
+            sectionNanos[s][head] = currentSection[s];
+        }
+
+        head = (head + 1) % WINDOW;
+        count = Math.min(count + 1, WINDOW);
+        totalFrames++;
+    }
+
+    public int sampleCount() {
+        return count;
+    }
+
+    public double frameMillisPercentile(double p) {
+        if (count == 0)
+            return 0;
+
+        System.arraycopy(frameNanos, 0, sorted, 0, count);
+        Arrays.sort(sorted, 0, count);
+        int idx = (int) Math.min(count - 1, Math.round(p * (count - 1)));
+        return sorted[idx] / 1e6;
+    }
+
+    public double sectionMillis(int section) {
+        return average(sectionNanos[section]) / 1e6;
+    }
+
+    public double drawCallsPerFrame() {
+        return average(drawCalls);
+    }
+
+    public double allocatedKbPerFrame() {
+        if (threadBean == null)
+            return -1;
+        return average(allocatedBytes) / 1024.0;
+    }
+
+    public void exportCsv(Path file) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+            out.print("frame,frame_ms,draw_calls,alloc_bytes");
+            for (String name : SECTION_NAMES) {
+                out.print("," + name + "_ms");
+            }
+            out.println();
+
+            long firstFrame = totalFrames - count;
+            for (int i = 0; i < count; i++) {
+                int idx = (head - count + i + WINDOW) % WINDOW;
+                out.printf(Locale.ROOT, "%d,%.4f,%d,%d", firstFrame + i, frameNanos[idx] / 1e6, drawCalls[idx],
+                        allocatedBytes[idx]);
+                for (int s = 0; s < SECTION_COUNT; s++) {
+                    out.printf(Locale.ROOT, ",%.4f", sectionNanos[s][idx] / 1e6);
+                }
+                out.println();
+            }
+        }
+    }
+
+    public void exportJson(Path file) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+            out.println("{");
+            out.printf(Locale.ROOT, "  \"frames\": %d,%n", count);
+            out.printf(Locale.ROOT, "  \"frame_ms_p50\": %.4f,%n", frameMillisPercentile(0.50));
+            out.printf(Locale.ROOT, "  \"frame_ms_p99\": %.4f,%n", frameMillisPercentile(0.99));
+            out.printf(Locale.ROOT, "  \"draw_calls_avg\": %.1f,%n", drawCallsPerFrame());
+            out.printf(Locale.ROOT, "  \"alloc_kb_per_frame\": %.2f,%n", allocatedKbPerFrame());
+            out.printf(Locale.ROOT, "  \"java_version\": \"%s\",%n", System.getProperty("java.version"));
+            out.printf(Locale.ROOT, "  \"os\": \"%s %s\",%n", System.getProperty("os.name"),
+                    System.getProperty("os.arch"));
+            out.printf(Locale.ROOT, "  \"processors\": %d,%n", Runtime.getRuntime().availableProcessors());
+            out.println("  \"sections_ms\": {");
+            for (int s = 0; s < SECTION_COUNT; s++) {
+                out.printf(Locale.ROOT, "    \"%s\": %.4f%s%n", SECTION_NAMES[s], sectionMillis(s),
+                        s < SECTION_COUNT - 1 ? "," : "");
+            }
+            out.println("  }");
+            out.println("}");
+        }
+    }
+
+    private double average(long[] values) {
+        if (count == 0)
+            return 0;
+
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += values[i];
+        }
+        return (double) sum / count;
+    }
+
+    private long allocatedBytes() {
+        return threadBean != null ? threadBean.getCurrentThreadAllocatedBytes() : 0;
+    }
+}
@@ -0,0 +1,57 @@
+package com.fazenda;
+
+final class GenerationKernels {
+
+    interface Vectorized {
+        void noiseRow(int r, int c0, int count, int[] out);
+
+        void dilateRows(long[] bits, int above, int row, int below, long[] tmp, long[] out, int offset, int words);
+    }
+
+    private static final Vectorized VECTOR = loadVector();
+    static final boolean VECTORIZED = VECTOR != null;
+
+    private GenerationKernels() {
+    }
+
+    static void noiseRow(int r, int c0, int count, int[] out) {
+        if (VECTORIZED) {
+            VECTOR.noiseRow(r, c0, count, out);
+        } else {
+            for (int i = 0; i < count; i++) {
+                out[i] = noise(r, c0 + i);
+            }
+        }
+    }
+
+    static void dilateRows(long[] bits, int above, int row, int below, long[] tmp, long[] out, int offset,
+            int words) {
+        if (VECTORIZED) {
+            VECTOR.dilateRows(bits, above, row, below, tmp, out, offset, words);
+            return;
+        }
+
+        for (int i = 0; i < words + 2; i++) {
+            tmp[i] = bits[above + i] | bits[row + i] | bits[below + i];
+        }
+        for (int i = 1; i <= words; i++) {
+            long v = tmp[i];
+            out[offset + i] = v | (v << 1) | (tmp[i - 1] >>> 63) | (v >>> 1) | (tmp[i + 1] << 63);
+        }
+    }
+
+    static int noise(int r, int c) {
+        return (int) (WorldGenerator.getNoise(r, c) * 63);
+    }
+
+    private static Vectorized loadVector() {
+        if (Boolean.getBoolean("farmsim.scalar") || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty())
+            return null;
+
+        try {
+            return (Vectorized) Class.forName("com.fazenda.VectorKernels").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.fazenda;
+
+import java.util.Arrays;
+
+public class GrowthScheduler {
+
+    private final TerrainStore terrain;
+    private final int[] stageTerrain;
+    private final int[] stageDays;
+
+    private int[] tiles = new int[256];
+    private int[] stages = new int[256];
+    private int[] dueDays = new int[256];
+    private int count = 0;
+    private int day = 0;
+
+    public GrowthScheduler(TerrainStore terrain, int[] stageTerrain, int[] stageDays) {
+        if (stageTerrain.length < 2 || stageDays.length != stageTerrain.length - 1)
+            throw new IllegalArgumentException("Growth needs N stage terrains and N-1 stage durations");
+
+        this.terrain = terrain;
+        this.stageTerrain = stageTerrain.clone();
+        this.stageDays = stageDays.clone();
+    }
+
+    public int growingCount() {
+        return count;
+    }
+
+    public int day() {
+        return day;
+    }
+
+    public void copyTo(int[] tilesOut, int[] stagesOut, int[] dueDaysOut) {
+        System.arraycopy(tiles, 0, tilesOut, 0, count);
+        System.arraycopy(stages, 0, stagesOut, 0, count);
+        System.arraycopy(dueDays, 0, dueDaysOut, 0, count);
+    }
+
+    public void restore(int day, int[] savedTiles, int[] savedStages, int[] savedDueDays, int savedCount) {
+        int cap = Math.max(256, savedCount);
+        this.tiles = Arrays.copyOf(savedTiles, cap);
+        this.stages = Arrays.copyOf(savedStages, cap);
+        this.dueDays = Arrays.copyOf(savedDueDays, cap);
+        this.count = savedCount;
+        this.day = day;
+    }
+
+    public void plant(int r, int c) {
+        if (count == tiles.length) {
+            int cap = count * 2;
+            tiles = Arrays.copyOf(tiles, cap);
+            stages = Arrays.copyOf(stages, cap);
+            dueDays = Arrays.copyOf(dueDays, cap);
+        }
+        tiles[count] = r * terrain.size() + c;
+        stages[count] = 0;
+        dueDays[count] = day + stageDays[0];
+        count++;
+    }
+
+    public int advanceDay() {
+        day++;
+        int changed = 0;
+        int size = terrain.size();
+        int mature = stageTerrain.length - 1;
+
+        terrain.beginBatch();
+        int i = 0;
+        while (i < count) {
+            int r = tiles[i] / size, c = tiles[i] % size;
+
+            if (terrain.get(r, c) != stageTerrain[stages[i]]) {
+                removeAt(i);
+                continue;
+            }
+
+            if (dueDays[i] > day) {
+                i++;
+                continue;
+            }
+
+            int next = stages[i] + 1;
+            terrain.set(r, c, stageTerrain[next]);
+            changed++;
+
+            if (next == mature) {
+                removeAt(i);
+                continue;
+            }
+
+            stages[i] = next;
+            dueDays[i] = day + stageDays[next];
+            i++;
+        }
+        terrain.endBatch();
+
+        return changed;
+    }
+
+    private void removeAt(int i) {
+        count--;
+        tiles[i] = tiles[count];
+        stages[i] = stages[count];
+        dueDays[i] = dueDays[count];
+    }
+}
@@ -0,0 +1,180 @@
+package com.fazenda;
+
+import static com.fazenda.FarmSimulation.TERRAIN_DIRT;
+import static com.fazenda.FarmSimulation.TERRAIN_PLANTED;
+import static com.fazenda.FarmSimulation.TERRAIN_WHEAT;
+import static com.fazenda.FarmSimulation.TILE_SIZE;
+import static com.fazenda.FarmSimulation.TOOL_PLOW;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+public class HeadlessRunner {
+
+    private final FarmSimulation sim;
+    private final double[] waypointsX;
+    private final double[] waypointsY;
+    private final int[] waypoint;
+    private final boolean[] opening;
+    private int daysPassed = 0;
+
+    public HeadlessRunner(FarmSimulation sim, int vehicles, int fieldWorkers) {
+        this.sim = sim;
+        if (sim.mapSize() < FarmSimulation.MIN_MAP_SIZE)
+            throw new IllegalArgumentException("O mapa precisa ter pelo menos " + FarmSimulation.MIN_MAP_SIZE
+                    + " tiles de lado.");
+
+        int first = 30, last = Math.min(sim.mapSize() - 10, 180), spacing = 6;
+        int rows = (last - first) / spacing + 1;
+        waypointsX = new double[rows * 2];
+        waypointsY = new double[rows * 2];
+        for (int i = 0; i < rows; i++) {
+            double y = (first + i * spacing) * TILE_SIZE;
+            boolean eastward = (i % 2) == 0;
+            waypointsX[i * 2] = (eastward ? 90 : last) * TILE_SIZE;
+            waypointsX[i * 2 + 1] = (eastward ? last : 90) * TILE_SIZE;
+            waypointsY[i * 2] = y;
+            waypointsY[i * 2 + 1] = y;
+        }
+
+        waypoint = new int[Math.max(vehicles, 1)];
+        opening = new boolean[waypoint.length];
+        for (int v = 1; v < waypoint.length; v++) {
+            int start = (v * 2) % waypointsX.length;
+            double x = waypointsX[start], y = waypointsY[start];
+            int next = (start + 1) % waypointsX.length;
+            double heading = Math.toDegrees(Math.atan2(waypointsY[next] - y, waypointsX[next] - x));
+            sim.addVehicle(x, y, heading);
+            waypoint[v] = next;
+        }
+
+        int fieldSize = 40, gap = 4, firstRow = PathPlanner.BLOCKED_MAX_ROW + 8, firstCol = 20;
+        int perRow = Math.max(1, (sim.mapSize() - PathPlanner.EDGE - firstCol) / (fieldSize + gap));
+        int fieldRows = Math.max(1, (sim.mapSize() - PathPlanner.EDGE - firstRow) / (fieldSize + gap));
+        for (int k = 0; k < fieldWorkers; k++) {
+            int slot = k % (perRow * fieldRows);
+            int r0 = firstRow + (slot / perRow) * (fieldSize + gap);
+            int c0 = firstCol + (slot % perRow) * (fieldSize + gap);
+            if (sim.addFieldWorker(r0, c0, r0 + fieldSize - 1, c0 + fieldSize - 1) < 0)
+                System.err.println("Campo " + k + " não cabe no mapa.");
+        }
+
+        VehicleFleet fleet = sim.fleet();
+        sim.setDayListener(grown -> {
+            daysPassed++;
+            for (int v = 0; v < waypoint.length; v++) {
+                fleet.toggleTool(v);
+            }
+        });
+    }
+
+    public long run(int days, double dt) {
+        if (!(dt > 0) || Double.isInfinite(dt))
+            throw new IllegalArgumentException("dt precisa ser um número positivo e finito: " + dt);
+
+        long steps = 0;
+        while (daysPassed < days) {
+            for (int v = 0; v < waypoint.length; v++) {
+                drive(v);
+            }
+            sim.step(dt);
+            steps++;
+        }
+        return steps;
+    }
+
+    private void drive(int v) {
+        VehicleFleet fleet = sim.fleet();
+        double tx = waypointsX[waypoint[v]], ty = waypointsY[waypoint[v]];
+        double dx = tx - fleet.x(v), dy = ty - fleet.y(v);
+
+        if (Math.hypot(dx, dy) < FieldWorkers.REACH) {
+            waypoint[v] = (waypoint[v] + 1) % waypointsX.length;
+            return;
+        }
+
+        double heading = Math.toDegrees(Math.atan2(dy, dx)) - fleet.angle(v);
+        while (heading < -180)
+            heading += 360;
+        while (heading > 180)
+            heading -= 360;
+
+        double speed = fleet.speed(v);
+        boolean slow = Math.abs(heading) > 30 && speed > FieldWorkers.TURN_SPEED;
+
+        double radius = FieldWorkers.TURN_RADIUS * Math.max(Math.abs(speed), 1);
+        double rad = Math.toRadians(fleet.angle(v)), side = heading < 0 ? -radius : radius;
+        double fromCenter = Math.hypot(dx + Math.sin(rad) * side, dy - Math.cos(rad) * side) / radius;
+        if (fromCenter < FieldWorkers.OPEN_BELOW)
+            opening[v] = true;
+        else if (fromCenter > FieldWorkers.OPEN_UNTIL)
+            opening[v] = false;
+
+        boolean steer = !opening[v];
+        fleet.setControls(v, !slow, slow, steer && heading < -2, steer && heading > 2);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> named = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                named.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+
+        int mapSize = Math.max(FarmSimulation.MIN_MAP_SIZE, Integer.parseInt(named.getOrDefault("map-size", "200")));
+        int days = Integer.parseInt(named.getOrDefault("days", "30"));
+        double dt = Double.parseDouble(named.getOrDefault("dt", String.valueOf(1.0 / 60.0)));
+        if (!(dt > 0) || Double.isInfinite(dt)) {
+            System.err.println("Uso: --dt=<segundos por passo>, positivo e finito (recebido: " + named.get("dt") + ")");
+            System.exit(2);
+        }
+        int vehicles = Integer.parseInt(named.getOrDefault("vehicles", "1"));
+        int workers = Integer.parseInt(named.getOrDefault("workers", "0"));
+
+        long t0 = System.nanoTime();
+        FarmSimulation sim = new FarmSimulation(mapSize);
+        sim.generateWorld();
+        sim.hitchImplement();
+        long t1 = System.nanoTime();
+
+        HeadlessRunner runner = new HeadlessRunner(sim, vehicles, workers);
+        long steps = runner.run(days, dt);
+        long t2 = System.nanoTime();
+
+        TerrainStore terrain = sim.terrain();
+        int dirt = 0, planted = 0, wheat = 0;
+        for (int r = 0; r < mapSize; r++) {
+            for (int c = 0; c < mapSize; c++) {
+                int t = terrain.get(r, c);
+                if (t == TERRAIN_DIRT)
+                    dirt++;
+                else if (t == TERRAIN_PLANTED)
+                    planted++;
+                else if (t == TERRAIN_WHEAT)
+                    wheat++;
+            }
+        }
+
+        double simSeconds = (t2 - t1) / 1e9;
+        System.out.printf("Mapa %dx%d gerado em %.1f ms%n", mapSize, mapSize, (t1 - t0) / 1e6);
+        System.out.printf("%d dias, %d veículos, %d passos em %.2f s (%.0f passos/s)%n", days, vehicles, steps,
+                simSeconds, steps / simSeconds);
+        System.out.printf("Arado: %d  Plantado: %d  Trigo: %d  Ferramenta final: %s%n", dirt, planted, wheat,
+                sim.currentToolType() == TOOL_PLOW ? "arado" : "plantadeira");
+        if (workers > 0) {
+            System.out.printf("Tratores autônomos: %d  Concluídos: %d%n", sim.fieldWorkers(),
+                    sim.parkedFieldWorkers());
+        }
+
+        String save = named.get("save");
+        if (save != null) {
+            WorldSave worldSave = new WorldSave(Paths.get(save));
+            worldSave.saveNow(terrain, sim.growth(), sim.toSaveState());
+            worldSave.close();
+            System.out.println("Mundo salvo em " + save);
+        }
+    }
+}
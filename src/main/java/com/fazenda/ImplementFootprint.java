@@ -0,0 +1,128 @@
+package com.fazenda;
+
+import static com.fazenda.FarmSimulation.TILE_SIZE;
+
+final class ImplementFootprint {
+
+    static final double HALF_WIDTH = 3.5 * TILE_SIZE;
+    static final double HALF_DEPTH = 0.5 * TILE_SIZE;
+
+    private static final int CORNERS = 8;
+
+    private final double[] xs = new double[CORNERS];
+    private final double[] ys = new double[CORNERS];
+    private final double[] hullX = new double[CORNERS * 2];
+    private final double[] hullY = new double[CORNERS * 2];
+
+    private int firstRow;
+    private int rowCount;
+    private int[] colStart = new int[8];
+    private int[] colEnd = new int[8];
+
+    int sweep(double fromX, double fromY, double fromAngle, double toX, double toY, double toAngle, int minRow,
+            int minCol, int maxRow, int maxCol) {
+        corners(0, fromX, fromY, fromAngle);
+        corners(4, toX, toY, toAngle);
+
+        double top = ys[0], bottom = ys[0];
+        for (int i = 1; i < CORNERS; i++) {
+            top = Math.min(top, ys[i]);
+            bottom = Math.max(bottom, ys[i]);
+        }
+
+        int r0 = Math.max(minRow, (int) Math.ceil(top / TILE_SIZE - 0.5));
+        int r1 = Math.min(maxRow, (int) Math.floor(bottom / TILE_SIZE - 0.5));
+        firstRow = r0;
+        rowCount = Math.max(0, r1 - r0 + 1);
+        if (colStart.length < rowCount) {
+            colStart = new int[rowCount];
+            colEnd = new int[rowCount];
+        }
+
+        int n = hull();
+        for (int k = 0; k < rowCount; k++) {
+            double y = (r0 + k + 0.5) * TILE_SIZE;
+            double left = Double.POSITIVE_INFINITY, right = Double.NEGATIVE_INFINITY;
+
+            for (int i = 0, j = n - 1; i < n; j = i++) {
+                double ya = hullY[j], yb = hullY[i];
+                if ((ya - y) * (yb - y) > 0)
+                    continue;
+
+                double xa = hullX[j], xb = hullX[i];
+                if (ya != yb) {
+                    xa += (xb - xa) * (y - ya) / (yb - ya);
+                    xb = xa;
+                }
+                left = Math.min(left, Math.min(xa, xb));
+                right = Math.max(right, Math.max(xa, xb));
+            }
+
+            colStart[k] = Math.max(minCol, (int) Math.ceil(left / TILE_SIZE - 0.5));
+            colEnd[k] = Math.min(maxCol, (int) Math.floor(right / TILE_SIZE - 0.5));
+        }
+        return rowCount;
+    }
+
+    int row(int k) {
+        return firstRow + k;
+    }
+
+    int colStart(int k) {
+        return colStart[k];
+    }
+
+    int colEnd(int k) {
+        return colEnd[k];
+    }
+
+    private int hull() {
+        for (int i = 1; i < CORNERS; i++) {
+            double px = xs[i], py = ys[i];
+            int j = i - 1;
+            while (j >= 0 && (xs[j] > px || (xs[j] == px && ys[j] > py))) {
+                xs[j + 1] = xs[j];
+                ys[j + 1] = ys[j];
+                j--;
+            }
+            xs[j + 1] = px;
+            ys[j + 1] = py;
+        }
+
+        int n = 0;
+        for (int i = 0; i < CORNERS; i++) {
+            while (n >= 2 && cross(n, xs[i], ys[i]) <= 0)
+                n--;
+            hullX[n] = xs[i];
+            hullY[n++] = ys[i];
+        }
+        for (int i = CORNERS - 2, lower = n + 1; i >= 0; i--) {
+            while (n >= lower && cross(n, xs[i], ys[i]) <= 0)
+                n--;
+            hullX[n] = xs[i];
+            hullY[n++] = ys[i];
+        }
+        return n - 1;
+    }
+
+    private double cross(int n, double x, double y) {
+        double ax = hullX[n - 2], ay = hullY[n - 2];
+        return (hullX[n - 1] - ax) * (y - ay) - (hullY[n - 1] - ay) * (x - ax);
+    }
+
+    private void corners(int at, double x, double y, double angle) {
+        double rad = Math.toRadians(angle);
+        double fx = Math.cos(rad), fy = Math.sin(rad);
+        double wx = -fy * HALF_WIDTH, wy = fx * HALF_WIDTH;
+        double dx = fx * HALF_DEPTH, dy = fy * HALF_DEPTH;
+
+        xs[at] = x + wx + dx;
+        ys[at] = y + wy + dy;
+        xs[at + 1] = x + wx - dx;
+        ys[at + 1] = y + wy - dy;
+        xs[at + 2] = x - wx - dx;
+        ys[at + 2] = y - wy - dy;
+        xs[at + 3] = x - wx + dx;
+        ys[at + 3] = y - wy + dy;
+    }
+}
@@ -4,59 +4,127 @@ import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.beans.value.ChangeListener;
 import javafx.scene.Scene;
-import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.effect.ColorAdjust;
 import javafx.scene.image.Image;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.MouseButton;
 import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.ArcType;
-import javafx.scene.shape.StrokeLineCap;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.scene.text.TextAlignment;
 import javafx.stage.Stage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.HashSet;
-import java.util.Random;
 import java.util.Set;
 
+import static com.fazenda.FarmSimulation.MAX_SPEED;
+import static com.fazenda.FarmSimulation.MAX_SPEED_KMH;
+import static com.fazenda.FarmSimulation.MIN_MAP_SIZE;
+import static com.fazenda.FarmSimulation.PLAYER;
+import static com.fazenda.FarmSimulation.SHED_H;
+import static com.fazenda.FarmSimulation.SHED_W;
+import static com.fazenda.FarmSimulation.SHED_X;
+import static com.fazenda.FarmSimulation.SHED_Y;
+import static com.fazenda.FarmSimulation.TERRAIN_DIRT;
+import static com.fazenda.FarmSimulation.TERRAIN_GRAVEL_ROAD;
+import static com.fazenda.FarmSimulation.TERRAIN_LIGHT_DIRT;
+import static com.fazenda.FarmSimulation.TERRAIN_PLANTED;
+import static com.fazenda.FarmSimulation.TERRAIN_WHEAT;
+import static com.fazenda.FarmSimulation.TILE_SIZE;
+import static com.fazenda.FarmSimulation.TOOL_PLOW;
+
 public class IndustrialFarmGame extends Application {
 
-    private static final int TILE_SIZE = 12;
-    private static final int MAP_SIZE = 200;
+    private static final int DEFAULT_MAP_SIZE = 200;
+    private static final int MAX_MAP_SIZE = 8192;
+
+    private static final double DEFAULT_SIM_HZ = 60.0;
+
+    private int mapSize = DEFAULT_MAP_SIZE;
 
     private double WIDTH = 800;
     private double HEIGHT = 600;
-    private final double MAX_WIDTH = 1280;
-    private final double MAX_HEIGHT = 960;
 
-    private static final int TERRAIN_GRASS = 0;
-    private static final int TERRAIN_DIRT = 1;
-    private static final int TERRAIN_PLANTED = 2;
-    private static final int TERRAIN_GRAVEL_ROAD = 3;
-    private static final int TERRAIN_LIGHT_DIRT = 4;
-    private static final int TERRAIN_WHEAT = 5;
+    private static final int[] MINIMAP_PALETTE = new int[8];
+
+    static {
+        MINIMAP_PALETTE[TERRAIN_GRAVEL_ROAD] = TileGenerator.argb(Color.web("#6A5D4D"));
+        MINIMAP_PALETTE[TERRAIN_DIRT] = TileGenerator.argb(Color.web("#5d3a1a"));
+        MINIMAP_PALETTE[TERRAIN_PLANTED] = TileGenerator.argb(Color.web("#44aa44"));
+        MINIMAP_PALETTE[TERRAIN_WHEAT] = TileGenerator.argb(Color.web("#d4af37"));
+    }
+
+    private static final Color BACKGROUND = Color.web("#0d1a0a");
+    private static final Color OVERVIEW_GRASS = Color.web("#2d4c21");
+    private static final Color MARKER_PLAYER = Color.YELLOW;
+    private static final Color MARKER_WORKER = Color.web("#e67e22");
+    private static final Color ROAD_LINE = Color.web("#f1c40f");
+    private static final Color PLOW_BODY = Color.web("#1a4a7a");
+    private static final Color PLOW_BODY_DARK = PLOW_BODY.darker();
+    private static final Color PLANTER_BODY = Color.web("#2d7a1a");
+    private static final Color PLANTER_BODY_DARK = PLANTER_BODY.darker();
+    private static final Color MACHINE_SHADE = Color.web("#000000", 0.2);
+    private static final Color MACHINE_AXLE = Color.web("#222222");
+    private static final Color MACHINE_WHEEL = Color.web("#777777");
+    private static final Color MACHINE_HUB = Color.web("#eeeeee", 0.5);
+    private static final Color TREE_SHADOW = Color.rgb(0, 0, 0, 0.3);
+    private static final Color GRAVEL_EDGE_TINT = Color.rgb(120, 110, 95, 0.28);
+    private static final Color GRAVEL_PEBBLE = Color.rgb(90, 90, 90, 0.35);
+    private static final Color GRASS_EDGE_TINT = Color.rgb(105, 130, 95, 0.22);
+    private static final Color SWITCH_ON = Color.web("#2ecc71");
+    private static final Color SWITCH_OFF = Color.web("#333");
+    private static final Color SWITCH_READY = Color.web("#e67e22");
+    private static final Color PANEL_DARK = Color.web("#111111");
+    private static final Color MINIMAP_BACKGROUND = Color.web("#111111", 0.85);
+    private static final Color SPEEDOMETER_BACKGROUND = Color.web("#111111", 0.9);
+    private static final Color CLOCK_BACKGROUND = Color.web("#1a1a1a");
+    private static final Color CLOCK_BORDER = Color.web("#555");
+    private static final Color BUTTON_TOOL = Color.web("#2c3e50");
+    private static final Color BUTTON_DISABLED = Color.web("#7f8c8d");
+    private static final Color BUTTON_SLEEP = Color.web("#8e44ad");
+    private static final Color BUTTON_SHADOW = Color.rgb(0, 0, 0, 0.5);
+    private static final Color PROFILER_BACKGROUND = Color.rgb(0, 0, 0, 0.7);
+    private static final Color PROFILER_TEXT = Color.web("#7CFC00");
+
+    private static final Font FONT_LABEL = Font.font("Arial", FontWeight.BOLD, 10);
+    private static final Font FONT_SWITCH = Font.font("Arial", FontWeight.BOLD, 12);
+    private static final Font FONT_SHED_TITLE = Font.font("Arial", FontWeight.BOLD, 14);
+    private static final Font FONT_BUTTON = Font.font("Arial", FontWeight.BOLD, 16);
+    private static final Font FONT_ZOOM_PLUS = Font.font("Arial", FontWeight.BOLD, 14);
+    private static final Font FONT_ZOOM_MINUS = Font.font("Arial", FontWeight.BOLD, 20);
+    private static final Font FONT_DATE = Font.font("Arial", FontWeight.NORMAL, 10);
+    private static final Font FONT_SPEED_TICK = Font.font("Arial", 10);
+    private static final Font FONT_CLOCK = Font.font("Monospaced", FontWeight.BOLD, 22);
+    private static final Font FONT_PROFILER = Font.font("Monospaced", 12);
+
+    private static final String[] SPEED_LABELS = new String[7];
+    static {
+        for (int i = 0; i < SPEED_LABELS.length; i++) {
+            SPEED_LABELS[i] = String.valueOf((int) ((i * 30 / 180.0) * MAX_SPEED_KMH));
+        }
+    }
 
-    private static final int TOOL_PLOW = 0;
-    private static final int TOOL_PLANTER = 1;
-    private int currentToolType = TOOL_PLOW;
+    private final ColorAdjust silhouette = new ColorAdjust(0, 0, -1.0, 0);
 
-    private final int SHED_X = 60;
-    private final int SHED_Y = 60;
+    private final double[] overlayX = new double[4];
+    private final double[] overlayY = new double[4];
 
-    private final int SHED_W = 6;
-    private final int SHED_H = 8;
+    private int clockMinutes = -1;
+    private int clockDay = -1;
+    private String clockText = "";
+    private String dateText = "";
 
-    private boolean[][] treeMap = new boolean[MAP_SIZE][MAP_SIZE];
+    private long profilerTextTime = 0;
+    private final String[] profilerLines = new String[FrameProfiler.SECTION_COUNT + 4];
 
-    private Image imgPlowed, imgRoad, imgRoadBorder;
-    private Image[] grassVariants = new Image[64];
-    private Image[] darkGrassVariants = new Image[64];
-    private Image[] plowedPebbleVariants = new Image[64];
-    private Image[] seedlingVariants = new Image[64];
-    private Image[] wheatVariants = new Image[64];
-    private Image[] gravelVariants = new Image[16];
+    private TileAtlas tileAtlas;
 
     private Image treeSheet;
     private Image shedImage;
@@ -64,88 +132,137 @@ public class IndustrialFarmGame extends Application {
     private final double TREE_W = 416.0 / 4.0;
     private final double TREE_H = 541.0 / 2.0;
 
-    private int[][] noiseMap = new int[MAP_SIZE][MAP_SIZE];
-    private javafx.scene.image.WritableImage miniMapImage = new javafx.scene.image.WritableImage(MAP_SIZE, MAP_SIZE);
-    private int lastPlowCol = -1, lastPlowRow = -1;
+    private MiniMap miniMap;
     private Image tractorSheet;
     private final double SPRITE_W = 931.0 / 6.0;
     private final double SPRITE_H = 472.0 / 4.0;
     private final double TRACTOR_SCALE = 0.4;
 
-    private double tractorX = 500, tractorY = 500;
-    private double angle = 45, smoothedAngle = 45;
-    private double currentSpeed = 0;
-
-    private final double MAX_SPEED_KMH = 30.0;
-    private final double MAX_SPEED = 2.6;
-    private final double ACCELERATION = 0.008;
-    private final double FRICTION = 0.015;
-    private final double BRAKE_FORCE = 0.04;
-    private final double BASE_ROTATION = 1.2;
-
-    private double trailerX = 430, trailerY = 430;
-    private double trailerAngle = 45;
-    private final double TRAILER_DISTANCE = 60.0;
-    private boolean isAttached = false;
-
     private double cameraX, cameraY;
+    private double zoom = 1.0;
+    private double[] mapOutlineX, mapOutlineY;
     private Set<KeyCode> activeKeys = new HashSet<>();
-    private int[][] farmMap = new int[MAP_SIZE][MAP_SIZE];
+    private FarmSimulation sim;
+    private TerrainStore terrain;
+    private TransitionMask transitions;
+    private TerrainChunkCache terrainCache;
+    private ForestIndex forest;
 
     private double miniMapVR = 25.0;
 
     private long lastFrameTime = 0;
+    private long lastRenderTime = 0;
+    private long minRenderInterval = 0;
+    private FixedStepClock simClock;
+
+    private double viewTractorX, viewTractorY, viewAngle;
+    private double viewAlpha;
 
-    private boolean isNearShed = false;
     private boolean isHeadlightOn = false;
-    private final double LIGHT_DISTANCE = 450.0;
+
+    private static final double CLOCK_W = 110;
+    private static final double CLOCK_H = 45;
+    private static final double CLOCK_Y = 180;
 
     private final double BTN_W = 220;
     private final double BTN_H = 50;
 
-    private double gameTimeSeconds = 6 * 3600;
-    private int gameDay = 1;
-    private int gameMonth = 1;
-    private int gameYear = 1;
+    private WorldSave worldSave;
+
+    private static final int SPRITE_TREE = 0;
+    private static final int SPRITE_SHED = 1;
+    private static final int SPRITE_TRAILER = 2;
+    private static final int SPRITE_TRACTOR = 3;
+    private static final int SPRITE_MARKER = 4;
+    private static final int[] SPRITE_SECTIONS = { FrameProfiler.TREES, FrameProfiler.SHED, FrameProfiler.MACHINES,
+            FrameProfiler.MACHINES, FrameProfiler.MACHINES };
+
+    private static final double MIN_ZOOM = 1 / 64.0;
+    private static final double MAX_ZOOM = 2.0;
+    private static final double OVERVIEW_ZOOM = 0.5;
+    private static final double MARKER_RADIUS = 4;
+
+    private static final double SHED_BASE_ISO_Y = (SHED_X * TILE_SIZE + (SHED_Y + SHED_H) * TILE_SIZE) / 2.0;
 
-    private final double TIME_SCALE = 300.0;
+    private final SpriteBatch sprites = new SpriteBatch();
 
-    private double nightAlpha = 0.0;
+    private final FrameProfiler profiler = new FrameProfiler();
+    private boolean showProfiler = false;
+
+    private static final double TERRAIN_PAD = 256;
+    private static final double LAMP_NIGHT = 0.2;
+
+    private RenderLayer terrainLayer, spriteLayer, staticHudLayer, hudLayer;
+    private LightMap lightMap;
+    private double paintedCameraX, paintedCameraY, paintedZoom;
+    private double paintedMinU, paintedMaxU, paintedMinV, paintedMaxV;
+    private long spriteKey;
+    private int paintedShedState = -1;
+    private double paintedTractorX = Double.NaN, paintedTractorY, paintedMiniMapVR, paintedNeedle;
+    private int paintedSwitches = -1, paintedMiniMapVersion = -1;
+    private boolean paintedProfiler;
 
     @Override
     public void start(Stage stage) {
-        createTileCache();
-
-        for (int r = 0; r < MAP_SIZE; r++) {
-            for (int c = 0; c < MAP_SIZE; c++) {
-                noiseMap[r][c] = (int) (getNoise(r, c) * 63);
-                miniMapImage.getPixelWriter().setColor(c, r, Color.TRANSPARENT);
+        worldSave = new WorldSave(readSavePath());
+        mapSize = readMapSize();
+        if (worldSave.exists()) {
+            try {
+                mapSize = worldSave.readMapSize();
+            } catch (IOException e) {
+                System.err.println("Save ignorado (" + worldSave.path() + "): " + e.getMessage());
             }
         }
+        sim = new FarmSimulation(mapSize);
+        simClock = new FixedStepClock(readRate("sim-hz", DEFAULT_SIM_HZ));
+        double fps = readRate("fps", 0);
+        minRenderInterval = fps > 0 ? (long) (1_000_000_000L / fps) : 0;
+        terrain = sim.terrain();
+        terrainLayer = new RenderLayer(WIDTH, HEIGHT, TERRAIN_PAD);
+        spriteLayer = new RenderLayer(WIDTH, HEIGHT, 0);
+        lightMap = new LightMap(WIDTH, HEIGHT);
+        staticHudLayer = new RenderLayer(WIDTH, HEIGHT, 0);
+        hudLayer = new RenderLayer(WIDTH, HEIGHT, 0);
+
+        tileAtlas = new TileAtlas(new TileGenerator(TILE_SIZE),
+                Paths.get(System.getProperty("user.home"), ".farmsim", "cache"));
+        terrainCache = new TerrainChunkCache(TILE_SIZE, this::drawTerrainTile);
+        forest = new ForestIndex(mapSize, TILE_SIZE);
+        transitions = new TransitionMask(terrain);
+        terrain.addListener(transitions);
+        terrain.addListener(terrainCache::invalidateRegion);
+        miniMap = new MiniMap(terrain, MINIMAP_PALETTE);
+        double extent = mapSize * TILE_SIZE;
+        mapOutlineX = new double[] { 0, extent, 0, -extent };
+        mapOutlineY = new double[] { 0, extent / 2, extent, extent / 2 };
+        terrain.addListener(miniMap);
+        terrain.addListener(this::terrainChanged);
+
+        if (!loadWorld()) {
+            sim.generateWorld();
+        }
+        sim.setDayListener(grown -> worldSave.saveAsync(terrain, sim.growth(), sim.toSaveState()));
 
         StackPane root = new StackPane();
 
         root.setStyle("-fx-background-color: radial-gradient(center 50% 50%, radius 70%, #1a331a, #2d5a2d);");
 
-        Canvas canvas = new Canvas(WIDTH, HEIGHT);
-        javafx.scene.effect.DropShadow ds = new javafx.scene.effect.DropShadow();
-        ds.setColor(Color.rgb(0, 0, 0, 0.6));
-        ds.setRadius(20);
-        canvas.setEffect(ds);
-        GraphicsContext gc = canvas.getGraphicsContext2D();
-        root.getChildren().add(canvas);
+        root.getChildren().addAll(terrainLayer.canvas(), spriteLayer.canvas(), lightMap.canvas(),
+                staticHudLayer.canvas(), hudLayer.canvas());
 
         Scene scene = new Scene(root, WIDTH, HEIGHT);
 
         ChangeListener<Number> sizeListener = (observable, oldValue, newValue) -> {
 
-            WIDTH = Math.min(scene.getWidth(), MAX_WIDTH);
+            WIDTH = scene.getWidth();
 
-            HEIGHT = Math.min(scene.getHeight(), MAX_HEIGHT);
-
-            canvas.setWidth(WIDTH);
-            canvas.setHeight(HEIGHT);
+            HEIGHT = scene.getHeight();
 
+            terrainLayer.resize(WIDTH, HEIGHT);
+            spriteLayer.resize(WIDTH, HEIGHT);
+            lightMap.resize(WIDTH, HEIGHT);
+            staticHudLayer.resize(WIDTH, HEIGHT);
+            hudLayer.resize(WIDTH, HEIGHT);
         };
 
         scene.widthProperty().addListener(sizeListener);
@@ -155,64 +272,6 @@ public class IndustrialFarmGame extends Application {
         stage.setTitle("Farm Simulator - Resolução Dinâmica");
         stage.show();
 
-        for (int r = 0; r < MAP_SIZE; r++) {
-            for (int c = 0; c < MAP_SIZE; c++) {
-
-                if (c < 12) {
-                    treeMap[r][c] = false;
-                    continue;
-                }
-
-                if (r >= 0 && r < MAP_SIZE && c >= 12 && c < MAP_SIZE) {
-                    double nVal = noiseMap[r][c] / 63.0;
-
-                    treeMap[r][c] = (nVal > 0.60);
-                } else {
-                    treeMap[r][c] = false;
-                }
-            }
-        }
-
-        int startCol = 12;
-        int endCol = SHED_X + SHED_W / 2;
-        int pathCenterRow = SHED_Y + SHED_H + 3;
-
-        for (int c = startCol; c <= endCol + 4; c++) {
-            int rowOffset = (int) (Math.sin((c - startCol) * 0.15) * 5);
-            int rBase = pathCenterRow + rowOffset;
-
-            for (int w = -6; w <= 6; w++) {
-                int r = rBase + w;
-                if (r >= 0 && r < MAP_SIZE && c >= 0 && c < MAP_SIZE) {
-                    farmMap[r][c] = TERRAIN_GRAVEL_ROAD;
-                    miniMapImage.getPixelWriter().setColor(c, r, Color.web("#6A5D4D"));
-                }
-            }
-        }
-
-        int patioCenterX = SHED_X + SHED_W / 2;
-        int patioCenterY = SHED_Y + SHED_H / 2;
-        int baseRadius = 18;
-
-        for (int j = patioCenterY - baseRadius - 5; j < patioCenterY + baseRadius + 10; j++) {
-            for (int i = patioCenterX - baseRadius - 10; i < patioCenterX + baseRadius + 10; i++) {
-                if (i >= 0 && i < MAP_SIZE && j >= 0 && j < MAP_SIZE) {
-
-                    double dx = i - patioCenterX;
-                    double dy = j - patioCenterY;
-                    double dist = Math.sqrt(dx * dx + dy * dy);
-
-                    double angle = Math.atan2(dy, dx);
-                    double deformation = Math.sin(angle * 5) * 2.5 + Math.cos(angle * 3) * 2.0;
-
-                    if (dist < baseRadius + deformation) {
-                        farmMap[j][i] = TERRAIN_GRAVEL_ROAD;
-                        miniMapImage.getPixelWriter().setColor(i, j, Color.web("#6A5D4D"));
-                    }
-                }
-            }
-        }
-
         try {
             tractorSheet = new Image(getClass().getResourceAsStream("/trator.png"));
             treeSheet = new Image(getClass().getResourceAsStream("/trees.png"));
@@ -224,12 +283,24 @@ public class IndustrialFarmGame extends Application {
         scene.setOnKeyPressed(e -> {
             activeKeys.add(e.getCode());
             if (e.getCode() == KeyCode.C)
-                toggleCouping();
+                sim.toggleCoupling();
             if (e.getCode() == KeyCode.F) {
                 isHeadlightOn = !isHeadlightOn;
             }
+            if (e.getCode() == KeyCode.T)
+                sendFieldWorker();
+            if (e.getCode() == KeyCode.F3)
+                showProfiler = !showProfiler;
+            if (e.getCode() == KeyCode.F4)
+                exportMetrics();
+            if (e.getCode() == KeyCode.EQUALS || e.getCode() == KeyCode.ADD)
+                setZoom(zoom * 1.25);
+            if (e.getCode() == KeyCode.MINUS || e.getCode() == KeyCode.SUBTRACT)
+                setZoom(zoom / 1.25);
         });
 
+        scene.setOnScroll(e -> setZoom(zoom * Math.pow(1.1, e.getDeltaY() / 40.0)));
+
         scene.setOnKeyReleased(e -> activeKeys.remove(e.getCode()));
 
         scene.setOnMouseClicked(e -> {
@@ -244,18 +315,18 @@ public class IndustrialFarmGame extends Application {
             }
 
             if (Math.hypot(mx - (dashX + 50), my - dashY) < 20) {
-                toggleCouping();
+                sim.toggleCoupling();
             }
 
-            if (isNearShed) {
+            if (sim.isNearShed()) {
                 double btnX = WIDTH - BTN_W - 20;
                 double btnY_Sleep = HEIGHT - BTN_H - 20;
                 double btnY_Tool = btnY_Sleep - BTN_H - 10;
 
                 if (mx >= btnX && mx <= btnX + BTN_W && my >= btnY_Tool && my <= btnY_Tool + BTN_H) {
 
-                    if (isAttached) {
-                        toggleTool();
+                    if (sim.isAttached()) {
+                        sim.toggleTool();
                     } else {
                         System.out.println("Ação negada: Você precisa acoplar a ferramenta ao trator primeiro!");
 
@@ -263,18 +334,16 @@ public class IndustrialFarmGame extends Application {
                 }
 
                 if (mx >= btnX && mx <= btnX + BTN_W && my >= btnY_Sleep && my <= btnY_Sleep + BTN_H) {
-                    gameTimeSeconds = 6 * 3600;
-                    gameDay++;
-                    passDay();
+                    sim.sleep();
                 }
             }
 
             if (e.getButton() == MouseButton.PRIMARY) {
                 double sz = 140, cx = (WIDTH - sz - 20) + sz / 2, cy = 20 + sz / 2;
                 if (Math.hypot(mx - (cx + 45), my - (cy + 45)) < 12)
-                    miniMapVR = Math.max(8, miniMapVR - 4);
+                    miniMapVR = Math.max(8, miniMapVR - Math.max(4, miniMapVR * 0.2));
                 if (Math.hypot(mx - (cx + 15), my - (cy + 60)) < 12)
-                    miniMapVR = Math.min(90, miniMapVR + 4);
+                    miniMapVR = Math.min(Math.max(90, mapSize / 2.0), miniMapVR + Math.max(4, miniMapVR * 0.25));
             }
         });
 
@@ -286,540 +355,384 @@ public class IndustrialFarmGame extends Application {
                 double delta = (now - lastFrameTime) / 1_000_000_000.0;
                 lastFrameTime = now;
 
-                update(delta);
-                render(gc);
-            }
-        }.start();
-
-        int transitionRadius = 2;
-
-        for (int r = 0; r < MAP_SIZE; r++) {
-            for (int c = 0; c < MAP_SIZE; c++) {
-
-                if (farmMap[r][c] == TERRAIN_GRASS || farmMap[r][c] == TERRAIN_DIRT) {
+                profiler.beginFrame();
+                profiler.begin(FrameProfiler.UPDATE);
+                int steps = simClock.advance(delta);
+                for (int i = 0; i < steps; i++) {
+                    update(simClock.stepSeconds());
+                }
+                profiler.end(FrameProfiler.UPDATE);
 
-                    int d = distanceToTerrain(r, c, TERRAIN_GRAVEL_ROAD, transitionRadius);
+                if (minRenderInterval > 0 && now - lastRenderTime < minRenderInterval)
+                    return;
+                lastRenderTime = now;
 
-                    if (d == 1) {
-                        farmMap[r][c] = TERRAIN_LIGHT_DIRT;
-                    }
-                }
+                updateView(simClock.alpha());
+                render();
+                profiler.endFrame();
             }
-        }
+        }.start();
 
         stage.setTitle("Farm Simulator - Arado e Plantadeira");
         stage.setScene(scene);
         stage.show();
     }
 
-    private void passDay() {
-        boolean changed = false;
-        for (int r = 0; r < MAP_SIZE; r++) {
-            for (int c = 0; c < MAP_SIZE; c++) {
+    private void sendFieldWorker() {
+        double rad = Math.toRadians(sim.angle());
+        int row = (int) (sim.tractorY() / TILE_SIZE + Math.sin(rad) * 25);
+        int col = (int) (sim.tractorX() / TILE_SIZE + Math.cos(rad) * 25);
+        int half = 18;
 
-                if (farmMap[r][c] == TERRAIN_PLANTED) {
-                    farmMap[r][c] = TERRAIN_WHEAT;
+        if (sim.addFieldWorker(row - half, col - half, row + half, col + half) < 0) {
+            System.out.println("Não há espaço para um campo aqui. Afaste-se do galpão e da borda do mapa.");
+            return;
+        }
+        System.out.println("Trator autônomo enviado para o campo em (" + row + ", " + col + ").");
+    }
 
-                    miniMapImage.getPixelWriter().setColor(c, r, Color.web("#d4af37"));
-                    changed = true;
-                }
-            }
+    private boolean loadWorld() {
+        if (!worldSave.exists())
+            return false;
+
+        WorldSave.State state = new WorldSave.State();
+        try {
+            worldSave.load(terrain, sim.growth(), state);
+        } catch (IOException e) {
+            System.err.println("Não foi possível carregar " + worldSave.path() + ": " + e.getMessage());
+            return false;
         }
-        if (changed) {
-            System.out.println("O tempo passou... A colheita está pronta!");
+
+        sim.applySaveState(state);
+
+        transitions.rebuild();
+        miniMap.rebuild();
+        return true;
+    }
+
+    @Override
+    public void stop() {
+        if (worldSave == null || sim == null)
+            return;
+
+        try {
+            worldSave.saveNow(terrain, sim.growth(), sim.toSaveState());
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
         }
+        worldSave.close();
     }
 
-    private void drawZoomButton(GraphicsContext gc, int size, double x, double y, String text) {
+    private void drawZoomButton(GraphicsContext gc, Font font, double x, double y, String text) {
         double r = 14;
-        gc.setFill(Color.web("#111111"));
+        gc.setFill(PANEL_DARK);
         gc.setStroke(Color.WHITE);
         gc.setLineWidth(1.2);
         gc.fillOval(x - r, y - r, r * 2, r * 2);
         gc.strokeOval(x - r, y - r, r * 2, r * 2);
         gc.setFill(Color.WHITE);
-        gc.setFont(Font.font("Arial", FontWeight.BOLD, size));
+        gc.setFont(font);
         gc.setTextAlign(TextAlignment.CENTER);
         gc.fillText(text, x, y + 5);
+        profiler.countDraws(3);
     }
 
-    private void toggleTool() {
-        currentToolType = (currentToolType == TOOL_PLOW) ? TOOL_PLANTER : TOOL_PLOW;
+    private void update(double dt) {
+        sim.setControls(activeKeys.contains(KeyCode.W), activeKeys.contains(KeyCode.S),
+                activeKeys.contains(KeyCode.A), activeKeys.contains(KeyCode.D));
+        sim.step(dt);
     }
 
-    private void createTileCache() {
-        imgRoadBorder = createSingleTileImage(Color.web("#808080"), 0, false, false, false, false, null);
-        imgRoad = createSingleTileImage(Color.web("#2c2c2c"), 0, false, false, false, false, null);
-        imgPlowed = createSingleTileImage(Color.web("#3d2611"), 0, false, true, false, false, null);
-
-        Color grassColor = Color.web("#2d4c21");
-        Color bladeColor = Color.web("#3a5f27");
-        Color darkGrassColor = Color.web("#1a2b13");
-        Color darkBladeColor = Color.web("#233a1a");
-        Color plowedColor = Color.web("#3d2611");
-
-        for (int i = 0; i < 64; i++) {
-            grassVariants[i] = createSingleTileImage(grassColor, i, true, false, false, false, bladeColor);
-            darkGrassVariants[i] = createSingleTileImage(darkGrassColor, i, true, false, false, false, darkBladeColor);
-            plowedPebbleVariants[i] = createSingleTileImage(plowedColor, i, false, true, false, false, null);
-            seedlingVariants[i] = createSingleTileImage(plowedColor, i, false, false, true, false, null);
-            wheatVariants[i] = createSingleTileImage(plowedColor, i, false, false, false, true, null);
-        }
-        for (int i = 0; i < 16; i++) {
-            gravelVariants[i] = createHeavyGravelTile(Color.web("#453d33"), i);
-        }
-    }
+    private void updateView(double alpha) {
+        viewTractorX = sim.tractorX(alpha);
+        viewTractorY = sim.tractorY(alpha);
+        viewAngle = sim.smoothedAngle(alpha);
+        viewAlpha = alpha;
 
-    private Image createHeavyGravelTile(Color baseColor, int seed) {
-        int w = TILE_SIZE * 2;
-        int h = TILE_SIZE + 15;
-        Canvas temp = new Canvas(w, h);
-        GraphicsContext tgc = temp.getGraphicsContext2D();
-        double off = 10;
-        double[] xs = { TILE_SIZE, TILE_SIZE * 2, TILE_SIZE, 0 };
-        double[] ys = { off, TILE_SIZE / 2.0 + off, TILE_SIZE + off, TILE_SIZE / 2.0 + off };
-
-        tgc.setFill(baseColor.darker());
-        tgc.fillPolygon(xs, ys, 4);
-
-        Random rng = new Random(seed * 999);
-
-        for (int i = 0; i < 250; i++) {
-            double px = rng.nextDouble() * (TILE_SIZE * 2);
-            double py = off + rng.nextDouble() * TILE_SIZE;
-            tgc.setFill(baseColor.deriveColor(rng.nextDouble() * 20 - 10, 1, 0.8, 0.3));
-            tgc.fillOval(px, py, 1.5, 1.5);
-        }
+        cameraX = Math.round(((viewTractorX - viewTractorY) - WIDTH / (2.0 * zoom)) * zoom) / zoom;
+        cameraY = Math.round(((viewTractorX + viewTractorY) / 2.0 - HEIGHT / (2.0 * zoom)) * zoom) / zoom;
+    }
 
-        int pebbleCount = 40 + rng.nextInt(20);
-        for (int i = 0; i < pebbleCount; i++) {
-            double px = rng.nextDouble() * (TILE_SIZE * 1.8);
-            double py = off + rng.nextDouble() * (TILE_SIZE * 0.9);
-            double size = 2.0 + rng.nextDouble() * 3.5;
+    private void setZoom(double value) {
+        zoom = Math.min(MAX_ZOOM, Math.max(MIN_ZOOM, value));
+    }
 
-            tgc.setFill(Color.rgb(0, 0, 0, 0.4));
-            tgc.fillOval(px + 1, py + 1, size, size * 0.6);
+    private void render() {
+        renderTerrain();
+        renderSprites();
+        renderLights();
+        renderStaticHud();
+        renderHud();
+    }
 
-            double tone = rng.nextDouble();
-            if (tone > 0.6)
-                tgc.setFill(Color.web("#878787fd"));
-            else if (tone > 0.2)
-                tgc.setFill(Color.web("#5c5b5b"));
+    private void renderTerrain() {
+        profiler.begin(FrameProfiler.TERRAIN);
+        double pad = terrainLayer.pad(), dx = (paintedCameraX - cameraX) * zoom, dy = (paintedCameraY - cameraY) * zoom;
+        boolean moved = zoom != paintedZoom || Math.abs(dx) > pad || Math.abs(dy) > pad;
+        if (terrainLayer.begin(moved)) {
+            paintedCameraX = cameraX;
+            paintedCameraY = cameraY;
+            paintedZoom = zoom;
+            dx = 0;
+            dy = 0;
+
+            GraphicsContext gc = terrainLayer.gc();
+            gc.setFill(BACKGROUND);
+            gc.fillRect(0, 0, WIDTH + 2 * pad, HEIGHT + 2 * pad);
+            profiler.countDraws(1);
+            gc.save();
+            gc.scale(zoom, zoom);
+            double x = cameraX - pad / zoom, y = cameraY - pad / zoom;
+            double w = (WIDTH + 2 * pad) / zoom, h = (HEIGHT + 2 * pad) / zoom;
+            paintedMinU = x / TILE_SIZE - 2;
+            paintedMaxU = (x + w) / TILE_SIZE + 2;
+            paintedMinV = 2 * y / TILE_SIZE - 4;
+            paintedMaxV = 2 * (y + h) / TILE_SIZE + 4;
+            gc.translate(-x, -y);
+
+            if (zoom < OVERVIEW_ZOOM)
+                renderOverview(gc, x, y, w, h);
             else
-                tgc.setFill(Color.web("#756c5c"));
+                profiler.countDraws(terrainCache.render(gc, x, y, w, h));
 
-            tgc.fillOval(px, py, size, size * 0.6);
-
-            tgc.setFill(Color.web("#FFFFFF", 0.15));
-            tgc.fillOval(px + size / 4, py + size / 10, size / 2, size / 4);
+            drawRoadLine(gc, 5.8, ROAD_LINE, 2);
+            drawRoadLine(gc, 6.2, ROAD_LINE, 2);
+            drawRoadLine(gc, 2.2, Color.WHITE, 1.5);
+            gc.restore();
         }
-
-        javafx.scene.SnapshotParameters p = new javafx.scene.SnapshotParameters();
-        p.setFill(Color.TRANSPARENT);
-        return temp.snapshot(p, null);
+        terrainLayer.shift(dx, dy);
+        profiler.end(FrameProfiler.TERRAIN);
     }
 
-    private Image createSingleTileImage(Color baseColor, int seed, boolean hasGrass, boolean hasPebbles,
-            boolean hasSeedling, boolean hasWheat, Color detailColor) {
-
-        int w = TILE_SIZE * 2;
-        int h = TILE_SIZE + 15;
-        Canvas temp = new Canvas(w, h);
-        GraphicsContext tgc = temp.getGraphicsContext2D();
-        double off = 10;
-        double[] xs = { TILE_SIZE, TILE_SIZE * 2, TILE_SIZE, 0 };
-        double[] ys = { off, TILE_SIZE / 2.0 + off, TILE_SIZE + off, TILE_SIZE / 2.0 + off };
-
-        tgc.setFill(baseColor);
-        tgc.fillPolygon(xs, ys, 4);
-
-        java.util.Random rng = new java.util.Random(seed);
-
-        if (hasPebbles) {
-            int pebbleCount = 2 + rng.nextInt(5);
-            for (int i = 0; i < pebbleCount; i++) {
-                double px = 4 + rng.nextDouble() * (TILE_SIZE * 1.3);
-                double py = off + 2 + rng.nextDouble() * (TILE_SIZE / 2.0);
-                double size = 0.8 + rng.nextDouble() * 1.8;
-                tgc.setFill(Color.gray(0.15 + rng.nextDouble() * 0.2));
-                tgc.fillOval(px, py, size, size * 0.6);
-                tgc.setFill(Color.gray(0.5, 0.2));
-                tgc.fillOval(px + (size * 0.2), py, size * 0.3, size * 0.3);
-            }
+    private void renderSprites() {
+        profiler.begin(FrameProfiler.TREES);
+        VehicleFleet fleet = sim.fleet();
+        long key = Double.doubleToLongBits(cameraX) * 31 + Double.doubleToLongBits(cameraY);
+        key = key * 31 + Double.doubleToLongBits(zoom);
+        for (int v = 0; v < fleet.size(); v++) {
+            key = key * 31 + Double.doubleToLongBits(fleet.x(v, viewAlpha));
+            key = key * 31 + Double.doubleToLongBits(fleet.y(v, viewAlpha));
+            key = key * 31 + Double.doubleToLongBits(fleet.smoothedAngle(v, viewAlpha));
+            key = key * 31 + Double.doubleToLongBits(fleet.trailerX(v, viewAlpha));
+            key = key * 31 + Double.doubleToLongBits(fleet.trailerY(v, viewAlpha));
+            key = key * 31 + Double.doubleToLongBits(fleet.trailerAngle(v, viewAlpha));
+            key = key * 31 + (fleet.isAttached(v) ? 2 : 1) * (fleet.tool(v) + 1);
         }
-
-        if (hasSeedling) {
-            double cx = TILE_SIZE;
-            double cy = TILE_SIZE / 2.0 + off + 3;
-            double hue = 95 + rng.nextDouble() * 40;
-            double sat = 0.4 + rng.nextDouble() * 0.3;
-            double bright = 0.3 + rng.nextDouble() * 0.2;
-            tgc.setStroke(Color.hsb(hue, sat, bright));
-            tgc.setLineWidth(1.0 + rng.nextDouble() * 0.4);
-            tgc.setLineCap(StrokeLineCap.ROUND);
-
-            double len1 = 2.5 + rng.nextDouble() * 2.5;
-            double ang1 = Math.toRadians(-100 - rng.nextDouble() * 35);
-            double x1End = cx + Math.cos(ang1) * len1;
-            double y1End = cy + Math.sin(ang1) * len1;
-
-            tgc.beginPath();
-            tgc.moveTo(cx, cy);
-            tgc.quadraticCurveTo(cx - 2, cy - len1 / 3, x1End, y1End);
-            tgc.stroke();
-
-            double len2 = 2.5 + rng.nextDouble() * 2.5;
-            double ang2 = Math.toRadians(-80 + rng.nextDouble() * 35);
-            double x2End = cx + Math.cos(ang2) * len2;
-            double y2End = cy + Math.sin(ang2) * len2;
-
-            tgc.beginPath();
-            tgc.moveTo(cx, cy);
-            tgc.quadraticCurveTo(cx + 2, cy - len2 / 3, x2End, y2End);
-            tgc.stroke();
+        if (!spriteLayer.begin(key != spriteKey)) {
+            profiler.end(FrameProfiler.TREES);
+            return;
         }
+        spriteKey = key;
 
-        if (hasWheat) {
-
-            Color wheatBase = Color.web("#d4af37");
-            Color wheatHighlight = Color.web("#f4d06f");
-
-            int count = 18 + rng.nextInt(8);
-
-            for (int i = 0; i < count; i++) {
-
-                double px = 4 + rng.nextDouble() * (TILE_SIZE * 1.6);
-                double py = off + 4 + rng.nextDouble() * (TILE_SIZE * 0.8);
-
-                double stalkH = 8 + rng.nextDouble() * 6;
-
-                double tilt = -2 + rng.nextDouble() * 4;
-
-                tgc.setLineCap(StrokeLineCap.BUTT);
-
-                tgc.setStroke(wheatBase.deriveColor(0, 1, 0.8 + rng.nextDouble() * 0.2, 1.0));
-                tgc.setLineWidth(1.5);
-                tgc.strokeLine(px, py, px + tilt, py - stalkH);
+        GraphicsContext gc = spriteLayer.gc();
+        gc.save();
+        gc.scale(zoom, zoom);
+        gc.translate(-cameraX, -cameraY);
 
-                tgc.setStroke(wheatHighlight);
-                tgc.setLineWidth(2.2);
-                tgc.strokeLine(px + tilt, py - stalkH, px + tilt + (tilt * 0.2), py - stalkH - 3.5);
-            }
+        double viewW = WIDTH / zoom, viewH = HEIGHT / zoom;
+        boolean overview = zoom < OVERVIEW_ZOOM;
+        sprites.clear();
+        int trees = overview ? 0
+                : forest.collect(cameraX - 150, cameraY - 150, cameraX + viewW + 150, cameraY + viewH + 150);
+        for (int i = 0; i < trees; i++) {
+            sprites.add(SPRITE_TREE, i, (forest.row(i) + forest.col(i)) * TILE_SIZE / 2.0);
         }
-
-        if (hasGrass && detailColor != null) {
-            int count = 6 + rng.nextInt(6);
-            for (int i = 0; i < count; i++) {
-                double rx = 4 + rng.nextDouble() * (TILE_SIZE * 1.5),
-                        ry = off + 2 + rng.nextDouble() * (TILE_SIZE / 2.0);
-                double gh = 3 + rng.nextDouble() * 5, bend = -2 + rng.nextDouble() * 4;
-                tgc.setStroke(detailColor.deriveColor(rng.nextDouble() * 10 - 5, 1, 0.8 + rng.nextDouble() * 0.4, 1));
-                tgc.setLineWidth(1.0 + rng.nextDouble() * 0.5);
-                tgc.strokeLine(rx, ry, rx + bend, ry - gh);
+        sprites.add(SPRITE_SHED, 0, SHED_BASE_ISO_Y);
+        for (int v = 0; v < fleet.size(); v++) {
+            double vx = fleet.x(v, viewAlpha), vy = fleet.y(v, viewAlpha);
+            double ix = vx - vy, iy = (vx + vy) / 2.0;
+            if (v != PLAYER && (ix < cameraX - 150 || ix > cameraX + viewW + 150 || iy < cameraY - 150
+                    || iy > cameraY + viewH + 150))
+                continue;
+
+            if (overview) {
+                sprites.add(SPRITE_MARKER, v, iy);
+                continue;
             }
+            sprites.add(SPRITE_TRAILER, v, (fleet.trailerX(v, viewAlpha) + fleet.trailerY(v, viewAlpha)) / 2.0);
+            sprites.add(SPRITE_TRACTOR, v, iy);
         }
+        sprites.sort();
+        profiler.end(FrameProfiler.TREES);
 
-        javafx.scene.SnapshotParameters p = new javafx.scene.SnapshotParameters();
-        p.setFill(Color.TRANSPARENT);
-        return temp.snapshot(p, null);
-    }
-
-    private void toggleCouping() {
-        if (isAttached)
-            isAttached = false;
-        else {
-            double backX = tractorX - Math.cos(Math.toRadians(angle)) * 30;
-            double backY = tractorY - Math.sin(Math.toRadians(angle)) * 30;
-            if (Math.sqrt(Math.pow(backX - trailerX, 2) + Math.pow(backY - trailerY, 2)) < 35)
-                isAttached = true;
-        }
+        drawSprites(gc);
+        gc.restore();
     }
 
-    private void update(double dt) {
-        if (activeKeys.contains(KeyCode.W))
-            currentSpeed = Math.min(currentSpeed + ACCELERATION * dt * 60, MAX_SPEED);
-        else if (activeKeys.contains(KeyCode.S)) {
-            if (currentSpeed > 0)
-                currentSpeed = Math.max(currentSpeed - BRAKE_FORCE * dt * 60, 0);
-            else
-                currentSpeed = Math.max(currentSpeed - ACCELERATION, -MAX_SPEED / 3.0);
-        } else {
-            currentSpeed *= (1 - FRICTION * dt * 60);
-            if (Math.abs(currentSpeed) < 0.005)
-                currentSpeed = 0;
+    private void renderLights() {
+        profiler.begin(FrameProfiler.LIGHTS);
+        double night = sim.nightAlpha();
+        lightMap.clear();
+        if (night > 0.01 && isHeadlightOn) {
+            lightMap.addHeadlight(screenX(viewTractorX, viewTractorY), screenY(viewTractorX, viewTractorY), viewAngle,
+                    zoom);
         }
+        if (night > LAMP_NIGHT) {
+            double frontY = (SHED_Y + SHED_H) * TILE_SIZE;
+            for (int c = SHED_X; c <= SHED_X + SHED_W; c += SHED_W) {
+                addLamp(c * TILE_SIZE, frontY);
+            }
 
-        if (Math.abs(currentSpeed) > 0.01) {
-            double dir = currentSpeed > 0 ? 1 : -1;
-            double turn = Math.min(Math.abs(currentSpeed) * 1.2, BASE_ROTATION);
-            if (activeKeys.contains(KeyCode.A))
-                angle -= turn * dir * dt * 60;
-            if (activeKeys.contains(KeyCode.D))
-                angle += turn * dir * dt * 60;
+            VehicleFleet fleet = sim.fleet();
+            for (int v = 0; v < fleet.size(); v++) {
+                double vx = fleet.x(v, viewAlpha), vy = fleet.y(v, viewAlpha);
+                double sx = screenX(vx, vy), sy = screenY(vx, vy), reach = LightMap.LIGHT_DISTANCE * zoom;
+                if (v == PLAYER || sx < -reach || sx > WIDTH + reach || sy < -reach || sy > HEIGHT + reach)
+                    continue;
+                lightMap.addHeadlight(sx, sy, fleet.smoothedAngle(v, viewAlpha), zoom);
+            }
         }
 
-        double diff = angle - smoothedAngle;
-        while (diff < -180)
-            diff += 360;
-        while (diff > 180)
-            diff -= 360;
-        smoothedAngle += diff * 0.25;
-
-        double nextX = tractorX + Math.cos(Math.toRadians(angle)) * currentSpeed * dt * 60;
-        double nextY = tractorY + Math.sin(Math.toRadians(angle)) * currentSpeed * dt * 60;
-
-        double limit = (MAP_SIZE - 1) * TILE_SIZE;
-
-        double shedMinX = SHED_X * TILE_SIZE;
-        double shedMaxX = (SHED_X + SHED_W) * TILE_SIZE;
-        double shedMinY = SHED_Y * TILE_SIZE;
-        double shedMaxY = (SHED_Y + SHED_H) * TILE_SIZE;
-        boolean collision = false;
-
-        if (nextX > shedMinX && nextX < shedMaxX && nextY > shedMinY && nextY < shedMaxY) {
-            collision = true;
-            currentSpeed = -currentSpeed * 0.5;
-        }
+        profiler.countDraws(lightMap.paint(night));
+        profiler.end(FrameProfiler.LIGHTS);
+    }
 
-        if (!collision && nextX >= 0 && nextX <= limit && nextY >= 0 && nextY <= limit) {
-            tractorX = nextX;
-            tractorY = nextY;
-        } else if (!collision) {
-            currentSpeed *= 0.5;
-        }
+    private void addLamp(double x, double y) {
+        lightMap.addLamp(screenX(x, y), screenY(x, y), zoom);
+    }
 
-        gameTimeSeconds += dt * TIME_SCALE;
+    private double screenX(double x, double y) {
+        return ((x - y) - cameraX) * zoom;
+    }
 
-        if (gameTimeSeconds >= 86400) {
-            gameTimeSeconds = 0;
-            gameDay++;
-            passDay();
+    private double screenY(double x, double y) {
+        return ((x + y) / 2.0 - cameraY) * zoom;
+    }
 
-            if (gameDay > 30) {
-                gameDay = 1;
-                gameMonth++;
-                if (gameMonth > 12) {
-                    gameMonth = 1;
-                    gameYear++;
-                }
+    private void renderStaticHud() {
+        profiler.begin(FrameProfiler.HUD);
+        int shed = !sim.isNearShed() ? 0 : !sim.isAttached() ? 1 : sim.currentToolType() == TOOL_PLOW ? 2 : 3;
+        if (staticHudLayer.begin(shed != paintedShedState)) {
+            paintedShedState = shed;
+
+            GraphicsContext gc = staticHudLayer.gc();
+            renderMiniMapFrame(gc);
+            renderClockFrame(gc);
+            renderSpeedometerDial(gc);
+            if (shed > 0) {
+                renderShedUI(gc);
             }
         }
+        profiler.end(FrameProfiler.HUD);
+    }
 
-        double hour = (gameTimeSeconds / 3600.0) % 24;
-
-        if (hour >= 4 && hour < 6) {
-            double progress = (hour - 4.0) / 2.0;
-
-            nightAlpha = 0.6 * (1.0 - progress);
-        }
-
-        else if (hour >= 6 && hour < 18) {
-            nightAlpha = 0.0;
-        }
+    private void renderHud() {
+        profiler.begin(FrameProfiler.MINIMAP);
+        miniMap.flush();
+        profiler.end(FrameProfiler.MINIMAP);
+
+        int minutes = (int) (sim.gameTimeSeconds() / 60);
+        double needle = Math.abs(sim.currentSpeed());
+        int switches = (isHeadlightOn ? 1 : 0) | (sim.isAttached() ? 2 : 0) | (sim.canCouple() ? 4 : 0);
+        long now = System.nanoTime();
+        boolean profilerDue = showProfiler && now - profilerTextTime > 250_000_000L;
+        boolean changed = miniMap.version() != paintedMiniMapVersion || viewTractorX != paintedTractorX
+                || viewTractorY != paintedTractorY || miniMapVR != paintedMiniMapVR || minutes != clockMinutes
+                || sim.gameDay() != clockDay
+                || needle != paintedNeedle || switches != paintedSwitches || showProfiler != paintedProfiler
+                || profilerDue;
+        if (!hudLayer.begin(changed))
+            return;
 
-        else if (hour >= 18 && hour < 20) {
-            double progress = (hour - 18.0) / 2.0;
-            nightAlpha = 0.6 * progress;
-        }
+        paintedMiniMapVersion = miniMap.version();
+        paintedTractorX = viewTractorX;
+        paintedTractorY = viewTractorY;
+        paintedMiniMapVR = miniMapVR;
+        paintedNeedle = needle;
+        paintedSwitches = switches;
+        paintedProfiler = showProfiler;
 
-        else {
-            nightAlpha = 0.6;
-        }
+        GraphicsContext gc = hudLayer.gc();
+        profiler.begin(FrameProfiler.MINIMAP);
+        renderMiniMap(gc);
+        profiler.end(FrameProfiler.MINIMAP);
 
-        double shedCenterX = (SHED_X + SHED_W / 2.0) * TILE_SIZE;
-        double shedCenterY = (SHED_Y + SHED_H / 2.0) * TILE_SIZE;
-
-        double distToShed = Math.hypot(tractorX - shedCenterX, tractorY - shedCenterY);
-
-        isNearShed = (distToShed < 160);
-
-        if (isAttached) {
-            double dx = tractorX - trailerX, dy = tractorY - trailerY, dist = Math.sqrt(dx * dx + dy * dy);
-            if (dist != TRAILER_DISTANCE) {
-                double f = dist - TRAILER_DISTANCE;
-                trailerX += Math.cos(Math.atan2(dy, dx)) * f;
-                trailerY += Math.sin(Math.atan2(dy, dx)) * f;
-                double adiff = Math.toDegrees(Math.atan2(dy, dx)) - trailerAngle;
-                while (adiff < -180)
-                    adiff += 360;
-                while (adiff > 180)
-                    adiff -= 360;
-                if (Math.abs(currentSpeed) > 0.05)
-                    trailerAngle += adiff * (currentSpeed > 0 ? 0.15 : 0.4);
-            }
+        profiler.begin(FrameProfiler.HUD);
+        renderClock(gc);
+        renderSpeedometer(gc);
+        renderDashboardSwitches(gc);
+        profiler.end(FrameProfiler.HUD);
 
-            int tx = (int) (trailerX / TILE_SIZE), ty = (int) (trailerY / TILE_SIZE);
-            if (tx != lastPlowCol || ty != lastPlowRow) {
-                lastPlowCol = tx;
-                lastPlowRow = ty;
-                for (int i = -3; i <= 3; i++) {
-                    for (int j = -3; j <= 3; j++) {
-                        int nx = tx + i, ny = ty + j;
-                        if (ny >= 5 && ny < MAP_SIZE - 5 && nx >= 17 && nx < MAP_SIZE - 5) {
-                            if (farmMap[ny][nx] == TERRAIN_GRAVEL_ROAD)
-                                continue;
-                            if (currentToolType == TOOL_PLOW) {
-                                if (farmMap[ny][nx] == TERRAIN_GRASS) {
-                                    farmMap[ny][nx] = TERRAIN_DIRT;
-                                    miniMapImage.getPixelWriter().setColor(nx, ny, Color.web("#5d3a1a"));
-                                }
-                            } else if (currentToolType == TOOL_PLANTER) {
-                                if (farmMap[ny][nx] == TERRAIN_DIRT) {
-                                    farmMap[ny][nx] = TERRAIN_PLANTED;
-                                    miniMapImage.getPixelWriter().setColor(nx, ny, Color.web("#44aa44"));
-                                }
-                            }
-                        }
-                    }
-                }
-            }
+        if (showProfiler) {
+            renderProfiler(gc);
         }
-        cameraX = (tractorX - tractorY) - WIDTH / 2.0;
-        cameraY = (tractorX + tractorY) / 2.0 - HEIGHT / 2.0;
-    }
-
-    private double getNoise(int x, int y) {
-        int n = x * 45291 + y * 94607;
-        n = (n << 13) ^ n;
-        return (1.0 - ((n * (n * n * 15731 + 789221) + 1376312589) & 0x7fffffff) / 1073741824.0 + 1.0) / 2.0;
     }
 
-    private void render(GraphicsContext gc) {
-        gc.setFill(Color.web("#0d1a0a"));
-        gc.fillRect(0, 0, WIDTH, HEIGHT);
-        gc.save();
-        gc.translate(-cameraX, -cameraY);
-
-        int cCol = (int) (tractorX / TILE_SIZE), cRow = (int) (tractorY / TILE_SIZE), rad = 65;
-
-        for (int r = cRow - rad; r <= cRow + rad; r++) {
-            for (int c = cCol - rad; c <= cCol + rad; c++) {
-                double ix = (c * TILE_SIZE - r * TILE_SIZE);
-                double iy = (c * TILE_SIZE + r * TILE_SIZE) / 2.0;
-                if (ix > cameraX - 150 && ix < cameraX + WIDTH + 150 && iy > cameraY - 150
-                        && iy < cameraY + HEIGHT + 150) {
-                    Image img = null;
-                    if (c >= 0 && c < 12) {
-                        img = (c < 2 || c >= 10) ? imgRoadBorder : imgRoad;
-                    } else if (r >= 0 && r < MAP_SIZE && c >= 12 && c < MAP_SIZE) {
-                        if (farmMap[r][c] == TERRAIN_GRAVEL_ROAD) {
-                            img = gravelVariants[noiseMap[r][c] % 16];
-                        } else {
-                            int margin = 5;
-                            if (c < 12 + margin || c >= MAP_SIZE - margin || r < margin || r >= MAP_SIZE - margin) {
-                                img = darkGrassVariants[noiseMap[r][c]];
-                            } else {
-                                if (farmMap[r][c] == TERRAIN_PLANTED) {
-                                    img = seedlingVariants[noiseMap[r][c]];
-                                } else if (farmMap[r][c] == TERRAIN_WHEAT) {
-                                    img = wheatVariants[noiseMap[r][c]];
-                                } else if (farmMap[r][c] == TERRAIN_DIRT) {
-                                    if (noiseMap[r][c] > 35) {
-                                        img = plowedPebbleVariants[noiseMap[r][c]];
-                                    } else {
-                                        img = imgPlowed;
-                                    }
-                                } else if (farmMap[r][c] == TERRAIN_LIGHT_DIRT) {
-
-                                    int n = noiseMap[r][c];
-
-                                    img = imgPlowed;
-
-                                    if (n > 30) {
-                                        img = plowedPebbleVariants[n];
-                                    }
-                                } else {
-                                    img = grassVariants[noiseMap[r][c]];
-                                }
-                            }
-                        }
-                    } else {
-                        img = darkGrassVariants[(int) (getNoise(r, c) * 63)];
-                    }
-                    if (img != null) {
-                        gc.drawImage(img, Math.floor(ix - TILE_SIZE), Math.floor(iy - 10));
-
-                        if (r >= 0 && r < MAP_SIZE && c >= 0 && c < MAP_SIZE) {
-
-                            boolean nearGravel = hasNeighbor(r, c, TERRAIN_GRAVEL_ROAD);
-                            boolean nearGrass = hasNeighbor(r, c, TERRAIN_GRASS);
-
-                            if (farmMap[r][c] == TERRAIN_LIGHT_DIRT && nearGravel) {
-                                gc.setFill(Color.rgb(120, 110, 95, 0.28));
-                                drawIsoOverlay(gc, ix, iy);
-
-                                double seed = noiseMap[r][c] / 63.0;
-                                if (seed > 0.6) {
-                                    gc.setFill(Color.rgb(90, 90, 90, 0.35));
-                                    gc.fillOval(ix - 3, iy + 2, 2.2, 1.4);
-                                }
-                            }
-
-                            if (farmMap[r][c] == TERRAIN_LIGHT_DIRT && nearGrass) {
-                                gc.setFill(Color.rgb(105, 130, 95, 0.22));
-                                drawIsoOverlay(gc, ix, iy);
-                            }
-                        }
-                    }
+    private void renderProfiler(GraphicsContext gc) {
+        double x = 20, y = 20, w = 250, lineH = 15;
+        double h = lineH * (FrameProfiler.SECTION_COUNT + 5) + 10;
 
-                }
-            }
+        long now = System.nanoTime();
+        if (now - profilerTextTime > 250_000_000L) {
+            profilerTextTime = now;
+            refreshProfilerText();
         }
 
-        drawRoadLine(gc, 5.8, Color.web("#f1c40f"), 2);
-        drawRoadLine(gc, 6.2, Color.web("#f1c40f"), 2);
-        drawRoadLine(gc, 2.2, Color.WHITE, 1.5);
-
-        double tractorIsoY = (tractorX + tractorY) / 2.0;
+        gc.setFill(PROFILER_BACKGROUND);
+        gc.fillRoundRect(x, y, w, h, 8, 8);
 
-        drawTrees(gc, cCol, cRow, rad, true, tractorIsoY);
+        gc.setFill(PROFILER_TEXT);
+        gc.setFont(FONT_PROFILER);
+        gc.setTextAlign(TextAlignment.LEFT);
 
-        double shedBaseIsoY = (SHED_X * TILE_SIZE + (SHED_Y + SHED_H) * TILE_SIZE) / 2.0;
-
-        if (tractorIsoY >= shedBaseIsoY) {
-            drawShedImage(gc);
+        double ty = y + 18;
+        for (int i = 0; i < profilerLines.length; i++) {
+            gc.fillText(profilerLines[i], x + 10, ty);
+            ty += i == 3 ? lineH * 1.5 : lineH;
         }
+        profiler.countDraws(1 + profilerLines.length);
+    }
 
-        if (isAttached) {
-            double xt = (tractorX - tractorY), yt = (tractorX + tractorY) / 2.0 - 10;
-            double fx = trailerX + Math.cos(Math.toRadians(trailerAngle)) * 5;
-            double fy = trailerY + Math.sin(Math.toRadians(trailerAngle)) * 5;
-            gc.setStroke(Color.BLACK);
-            gc.setLineWidth(3);
-            gc.strokeLine(xt, yt, (fx - fy), (fx + fy) / 2.0);
-        }
+    private void refreshProfilerText() {
+        profilerLines[0] = String.format("frame p50 %6.2f ms", profiler.frameMillisPercentile(0.50));
+        profilerLines[1] = String.format("frame p99 %6.2f ms", profiler.frameMillisPercentile(0.99));
+        profilerLines[2] = String.format("draw calls %6.0f", profiler.drawCallsPerFrame());
+        double allocKb = profiler.allocatedKbPerFrame();
+        profilerLines[3] = allocKb < 0 ? "alloc     n/d" : String.format("alloc %8.1f KB/frame", allocKb);
 
-        Color machineColor;
-        if (currentToolType == TOOL_PLOW) {
-            machineColor = Color.web("#1a4a7a");
-        } else {
-            machineColor = Color.web("#2d7a1a");
+        for (int s = 0; s < FrameProfiler.SECTION_COUNT; s++) {
+            profilerLines[4 + s] = String.format("%-9s %6.3f ms", FrameProfiler.SECTION_NAMES[s],
+                    profiler.sectionMillis(s));
         }
-        renderMachineIso(gc, trailerX, trailerY, trailerAngle, machineColor);
-
-        renderIsoTractor(gc, (tractorX - tractorY), tractorIsoY);
+    }
 
-        if (tractorIsoY < shedBaseIsoY) {
-            drawShedImage(gc);
+    private void exportMetrics() {
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path csv = Paths.get("farmsim-metrics-" + stamp + ".csv");
+        Path json = Paths.get("farmsim-metrics-" + stamp + ".json");
+        try {
+            profiler.exportCsv(csv);
+            profiler.exportJson(json);
+            System.out.println("Métricas exportadas para " + csv.toAbsolutePath() + " e " + json.getFileName());
+        } catch (IOException e) {
+            System.err.println("Erro ao exportar métricas: " + e.getMessage());
         }
+    }
 
-        drawTrees(gc, cCol, cRow, rad, false, tractorIsoY);
+    private void drawTerrainTile(GraphicsContext gc, int r, int c, double ix, double iy) {
+        tileAtlas.draw(gc, TileSelector.select(terrain, r, c), Math.floor(ix - TILE_SIZE), Math.floor(iy - 10));
 
-        gc.restore();
-        if (nightAlpha > 0.01) {
+        if (r >= 0 && r < mapSize && c >= 0 && c < mapSize) {
 
-            gc.setFill(Color.rgb(10, 10, 30, nightAlpha));
-            gc.fillRect(0, 0, WIDTH, HEIGHT);
-        }
+            int edges = transitions.get(r, c);
+            boolean nearGravel = (edges & TransitionMask.NEAR_GRAVEL) != 0;
+            boolean nearGrass = (edges & TransitionMask.NEAR_GRASS) != 0;
 
-        renderNightAndLights(gc);
-        renderMiniMap(gc);
-        renderClock(gc);
-        renderSpeedometer(gc);
-        renderDashboardSwitches(gc);
+            if (terrain.get(r, c) == TERRAIN_LIGHT_DIRT && nearGravel) {
+                gc.setFill(GRAVEL_EDGE_TINT);
+                drawIsoOverlay(gc, ix, iy);
+
+                double seed = terrain.noise(r, c) / 63.0;
+                if (seed > 0.6) {
+                    gc.setFill(GRAVEL_PEBBLE);
+                    gc.fillOval(ix - 3, iy + 2, 2.2, 1.4);
+                }
+            }
 
-        if (isNearShed) {
-            renderShedUI(gc);
+            if (terrain.get(r, c) == TERRAIN_LIGHT_DIRT && nearGrass) {
+                gc.setFill(GRASS_EDGE_TINT);
+                drawIsoOverlay(gc, ix, iy);
+            }
         }
     }
 
@@ -829,7 +742,7 @@ public class IndustrialFarmGame extends Application {
 
         double lightX = cx + 90;
 
-        gc.setFill(isHeadlightOn ? Color.web("#2ecc71") : Color.web("#333"));
+        gc.setFill(isHeadlightOn ? SWITCH_ON : SWITCH_OFF);
         gc.fillOval(lightX, cy - 15, 30, 30);
         gc.setStroke(Color.WHITE);
         gc.setLineWidth(2);
@@ -845,21 +758,16 @@ public class IndustrialFarmGame extends Application {
         gc.strokeLine(lightX + 12, cy + 5, lightX + 5, cy + 7);
 
         gc.setFill(Color.WHITE);
-        gc.setFont(Font.font("Arial", FontWeight.BOLD, 10));
+        gc.setFont(FONT_LABEL);
         gc.fillText("F", lightX + 12, cy + 25);
 
         double couplerX = cx + 140;
 
-        Color couplerColor = Color.web("#333");
-        if (isAttached) {
-            couplerColor = Color.web("#2ecc71");
-        } else {
-
-            double backX = tractorX - Math.cos(Math.toRadians(angle)) * 30;
-            double backY = tractorY - Math.sin(Math.toRadians(angle)) * 30;
-            if (Math.hypot(backX - trailerX, backY - trailerY) < 35) {
-                couplerColor = Color.web("#e67e22");
-            }
+        Color couplerColor = SWITCH_OFF;
+        if (sim.isAttached()) {
+            couplerColor = SWITCH_ON;
+        } else if (sim.canCouple()) {
+            couplerColor = SWITCH_READY;
         }
 
         gc.setFill(couplerColor);
@@ -868,116 +776,54 @@ public class IndustrialFarmGame extends Application {
         gc.strokeOval(couplerX, cy - 15, 30, 30);
 
         gc.setFill(Color.WHITE);
-        gc.setFont(Font.font("Arial", FontWeight.BOLD, 12));
+        gc.setFont(FONT_SWITCH);
         gc.setTextAlign(TextAlignment.CENTER);
         gc.fillText("TLR", couplerX + 15, cy + 5);
 
-        gc.setFont(Font.font("Arial", FontWeight.BOLD, 10));
+        gc.setFont(FONT_LABEL);
         gc.fillText("C", couplerX + 15, cy + 25);
+        profiler.countDraws(11);
     }
 
-    private void renderNightAndLights(GraphicsContext gc) {
-        if (nightAlpha < 0.01 && !isHeadlightOn)
-            return;
-
-        gc.save();
-        gc.setFill(Color.rgb(10, 10, 25, nightAlpha));
-        gc.fillRect(0, 0, WIDTH, HEIGHT);
-        gc.restore();
+    private void renderClockFrame(GraphicsContext gc) {
+        double clockX = WIDTH - CLOCK_W - 10;
 
-        if (isHeadlightOn) {
-            gc.save();
-            gc.setGlobalBlendMode(javafx.scene.effect.BlendMode.SCREEN);
-
-            double screenX = WIDTH / 2.0;
-            double screenY = HEIGHT / 2.0;
-            double steppedAngle = Math.round(smoothedAngle / 15.0) * 15.0;
-
-            gc.translate(screenX, screenY);
-
-            gc.scale(1.0, 0.58);
-
-            double auraRadius = 65;
-            javafx.scene.paint.RadialGradient auraGrad = new javafx.scene.paint.RadialGradient(
-                    0, 0, 0, 0, auraRadius, false,
-                    javafx.scene.paint.CycleMethod.NO_CYCLE,
-                    new javafx.scene.paint.Stop(0.0, Color.rgb(255, 230, 150, 0.3)),
-                    new javafx.scene.paint.Stop(1.0, Color.TRANSPARENT));
-            gc.setFill(auraGrad);
-            gc.fillOval(-auraRadius, -auraRadius, auraRadius * 2, auraRadius * 2);
-
-            gc.rotate(steppedAngle + 30);
-
-            javafx.scene.paint.RadialGradient lightGrad = new javafx.scene.paint.RadialGradient(
-                    0, 0, 0, 0, LIGHT_DISTANCE, false,
-                    javafx.scene.paint.CycleMethod.NO_CYCLE,
-                    new javafx.scene.paint.Stop(0.0, Color.rgb(255, 240, 180, 0.25)),
-                    new javafx.scene.paint.Stop(0.8, Color.rgb(200, 180, 100, 0.1)),
-                    new javafx.scene.paint.Stop(1.0, Color.TRANSPARENT));
-            gc.setFill(lightGrad);
-
-            javafx.scene.effect.DropShadow softBlur = new javafx.scene.effect.DropShadow();
-            softBlur.setRadius(45);
-            softBlur.setOffsetX(0);
-            softBlur.setOffsetY(0);
-            softBlur.setColor(Color.rgb(255, 230, 150, 0.3));
-            gc.setEffect(softBlur);
-
-            gc.fillArc(-LIGHT_DISTANCE, -LIGHT_DISTANCE,
-                    LIGHT_DISTANCE * 2, LIGHT_DISTANCE * 2,
-                    -90, 135, ArcType.ROUND);
+        gc.setFill(CLOCK_BACKGROUND);
+        gc.fillRoundRect(clockX, CLOCK_Y, CLOCK_W, CLOCK_H, 5, 5);
 
-            gc.restore();
-        }
+        gc.setStroke(CLOCK_BORDER);
+        gc.setLineWidth(2);
+        gc.strokeRoundRect(clockX, CLOCK_Y, CLOCK_W, CLOCK_H, 5, 5);
+        profiler.countDraws(2);
     }
 
     private void renderClock(GraphicsContext gc) {
-
-        double clockW = 110;
-        double clockH = 45;
+        double clockW = CLOCK_W;
+        double clockH = CLOCK_H;
         double clockX = WIDTH - clockW - 10;
-        double clockY = 180;
-
-        gc.setFill(Color.web("#1a1a1a"));
-        gc.fillRoundRect(clockX, clockY, clockW, clockH, 5, 5);
+        double clockY = CLOCK_Y;
 
-        gc.setStroke(Color.web("#555"));
-        gc.setLineWidth(2);
-        gc.strokeRoundRect(clockX, clockY, clockW, clockH, 5, 5);
-
-        int totalMinutes = (int) (gameTimeSeconds / 60);
-        int hours = (totalMinutes / 60) % 24;
-        int minutes = totalMinutes % 60;
-        String timeStr = String.format("%02d:%02d", hours, minutes);
+        int totalMinutes = (int) (sim.gameTimeSeconds() / 60);
+        if (totalMinutes != clockMinutes) {
+            clockMinutes = totalMinutes;
+            clockText = String.format("%02d:%02d", (totalMinutes / 60) % 24, totalMinutes % 60);
+        }
+        if (sim.gameDay() != clockDay) {
+            clockDay = sim.gameDay();
+            dateText = String.format("Dia %02d - Mês %02d - Ano %d", sim.gameDay(), sim.gameMonth(), sim.gameYear());
+        }
 
         gc.setFill(Color.RED);
 
-        gc.setFont(Font.font("Monospaced", FontWeight.BOLD, 22));
+        gc.setFont(FONT_CLOCK);
         gc.setTextAlign(TextAlignment.CENTER);
 
-        gc.fillText(timeStr, clockX + clockW / 2, clockY + 28);
+        gc.fillText(clockText, clockX + clockW / 2, clockY + 28);
 
         gc.setFill(Color.WHITE);
-        gc.setFont(Font.font("Arial", FontWeight.NORMAL, 10));
-        String dateStr = String.format("Dia %02d - Mês %02d - Ano %d", gameDay, gameMonth, gameYear);
-        gc.fillText(dateStr, clockX + clockW / 2, clockY + clockH + 12);
-    }
-
-    private int distanceToTerrain(int r, int c, int terrainType, int maxDist) {
-        for (int d = 1; d <= maxDist; d++) {
-            for (int dy = -d; dy <= d; dy++) {
-                for (int dx = -d; dx <= d; dx++) {
-                    int nr = r + dy;
-                    int nc = c + dx;
-                    if (nr >= 0 && nr < MAP_SIZE && nc >= 0 && nc < MAP_SIZE) {
-                        if (farmMap[nr][nc] == terrainType) {
-                            return d;
-                        }
-                    }
-                }
-            }
-        }
-        return 999;
+        gc.setFont(FONT_DATE);
+        gc.fillText(dateText, clockX + clockW / 2, clockY + clockH + 12);
+        profiler.countDraws(2);
     }
 
     private void renderShedUI(GraphicsContext gc) {
@@ -988,27 +834,28 @@ public class IndustrialFarmGame extends Application {
         String toolText = "";
         Color toolBtnColor;
 
-        if (isAttached) {
-            toolText = (currentToolType == TOOL_PLOW) ? "Equipar Plantadeira" : "Equipar Arado";
-            toolBtnColor = Color.web("#2c3e50");
+        if (sim.isAttached()) {
+            toolText = (sim.currentToolType() == TOOL_PLOW) ? "Equipar Plantadeira" : "Equipar Arado";
+            toolBtnColor = BUTTON_TOOL;
         } else {
             toolText = "Acople para Trocar";
-            toolBtnColor = Color.web("#7f8c8d");
+            toolBtnColor = BUTTON_DISABLED;
         }
 
         drawButton(gc, btnX, btnY_Tool, toolText, toolBtnColor);
 
-        drawButton(gc, btnX, btnY_Sleep, "Dormir (Pular Noite)", Color.web("#8e44ad"));
+        drawButton(gc, btnX, btnY_Sleep, "Dormir (Pular Noite)", BUTTON_SLEEP);
 
         gc.setFill(Color.WHITE);
-        gc.setFont(Font.font("Arial", FontWeight.BOLD, 14));
+        gc.setFont(FONT_SHED_TITLE);
         gc.setTextAlign(TextAlignment.RIGHT);
         gc.fillText("OFICINA", WIDTH - 20, btnY_Tool - 10);
+        profiler.countDraws(1);
     }
 
     private void drawButton(GraphicsContext gc, double x, double y, String text, Color color) {
 
-        gc.setFill(Color.rgb(0, 0, 0, 0.5));
+        gc.setFill(BUTTON_SHADOW);
         gc.fillRoundRect(x + 4, y + 4, BTN_W, BTN_H, 10, 10);
 
         gc.setFill(color);
@@ -1019,34 +866,22 @@ public class IndustrialFarmGame extends Application {
         gc.strokeRoundRect(x, y, BTN_W, BTN_H, 10, 10);
 
         gc.setFill(Color.WHITE);
-        gc.setFont(Font.font("Arial", FontWeight.BOLD, 16));
+        gc.setFont(FONT_BUTTON);
         gc.setTextAlign(TextAlignment.CENTER);
         gc.fillText(text, x + BTN_W / 2, y + BTN_H / 2 + 5);
+        profiler.countDraws(4);
     }
 
     private void drawIsoOverlay(GraphicsContext gc, double ix, double iy) {
-        gc.fillPolygon(
-                new double[] { ix, ix + TILE_SIZE, ix, ix - TILE_SIZE },
-                new double[] { iy, iy + TILE_SIZE / 2.0, iy + TILE_SIZE, iy + TILE_SIZE / 2.0 },
-                4);
-    }
-
-    private boolean hasNeighbor(int r, int c, int type) {
-        for (int dy = -1; dy <= 1; dy++) {
-            for (int dx = -1; dx <= 1; dx++) {
-                if (dx == 0 && dy == 0)
-                    continue;
-
-                int nr = r + dy;
-                int nc = c + dx;
-
-                if (nr >= 0 && nr < MAP_SIZE && nc >= 0 && nc < MAP_SIZE) {
-                    if (farmMap[nr][nc] == type)
-                        return true;
-                }
-            }
-        }
-        return false;
+        overlayX[0] = ix;
+        overlayX[1] = ix + TILE_SIZE;
+        overlayX[2] = ix;
+        overlayX[3] = ix - TILE_SIZE;
+        overlayY[0] = iy;
+        overlayY[1] = iy + TILE_SIZE / 2.0;
+        overlayY[2] = iy + TILE_SIZE;
+        overlayY[3] = iy + TILE_SIZE / 2.0;
+        gc.fillPolygon(overlayX, overlayY, 4);
     }
 
     private void drawShedImage(GraphicsContext gc) {
@@ -1075,9 +910,7 @@ public class IndustrialFarmGame extends Application {
         gc.transform(1, 0, -0.8, 0.5, 0, 0);
         gc.setGlobalAlpha(0.28);
 
-        javafx.scene.effect.ColorAdjust mono = new javafx.scene.effect.ColorAdjust();
-        mono.setBrightness(-1.0);
-        gc.setEffect(mono);
+        gc.setEffect(silhouette);
 
         gc.drawImage(
                 shedImage,
@@ -1096,73 +929,148 @@ public class IndustrialFarmGame extends Application {
                 drawY,
                 targetW,
                 targetH);
+        profiler.countDraws(2);
     }
 
-    private void drawTrees(GraphicsContext gc, int cCol, int cRow, int rad, boolean behind, double tractorY) {
-        if (treeSheet == null)
-            return;
+    private void drawSprites(GraphicsContext gc) {
+        int section = -1;
+        for (int i = 0; i < sprites.size(); i++) {
+            int kind = sprites.kind(i);
+            int next = SPRITE_SECTIONS[kind];
+            if (next != section) {
+                if (section >= 0)
+                    profiler.end(section);
+                section = next;
+                profiler.begin(section);
+            }
 
-        for (int r = cRow - rad; r <= cRow + rad; r++) {
-            for (int c = cCol - rad; c <= cCol + rad; c++) {
+            switch (kind) {
+                case SPRITE_TREE:
+                    drawTree(gc, sprites.payload(i));
+                    break;
+                case SPRITE_SHED:
+                    drawShedImage(gc);
+                    break;
+                case SPRITE_TRAILER:
+                    drawTrailer(gc, sprites.payload(i));
+                    break;
+                case SPRITE_TRACTOR:
+                    drawTractor(gc, sprites.payload(i));
+                    break;
+                case SPRITE_MARKER:
+                    drawVehicleMarker(gc, sprites.payload(i));
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (section >= 0)
+            profiler.end(section);
+    }
 
-                boolean isForestArea = !(c >= 0 && c < 12) &&
-                        !(r >= 0 && r < MAP_SIZE && c >= 12 && c < MAP_SIZE);
+    private void drawTractor(GraphicsContext gc, int v) {
+        VehicleFleet fleet = sim.fleet();
+        double vx = fleet.x(v, viewAlpha), vy = fleet.y(v, viewAlpha);
+        renderIsoTractor(gc, vx - vy, (vx + vy) / 2.0, fleet.smoothedAngle(v, viewAlpha));
+    }
 
-                if (!isForestArea)
-                    continue;
+    private void drawVehicleMarker(GraphicsContext gc, int v) {
+        VehicleFleet fleet = sim.fleet();
+        double vx = fleet.x(v, viewAlpha), vy = fleet.y(v, viewAlpha), r = MARKER_RADIUS / zoom;
+        gc.setFill(v == PLAYER ? MARKER_PLAYER : MARKER_WORKER);
+        gc.fillOval(vx - vy - r, (vx + vy) / 2.0 - r, r * 2, r * 2);
+        profiler.countDraws(1);
+    }
 
-                double nVal = getNoise(r, c);
+    private void drawTrailer(GraphicsContext gc, int v) {
+        VehicleFleet fleet = sim.fleet();
+        double trailerX = fleet.trailerX(v, viewAlpha), trailerY = fleet.trailerY(v, viewAlpha);
+        double trailerAngle = fleet.trailerAngle(v, viewAlpha);
 
-                if (nVal <= 0.58)
-                    continue;
+        if (fleet.isAttached(v)) {
+            double vx = fleet.x(v, viewAlpha), vy = fleet.y(v, viewAlpha);
+            double xt = (vx - vy), yt = (vx + vy) / 2.0 - 10;
+            double fx = trailerX + Math.cos(Math.toRadians(trailerAngle)) * 5;
+            double fy = trailerY + Math.sin(Math.toRadians(trailerAngle)) * 5;
+            gc.setStroke(Color.BLACK);
+            gc.setLineWidth(3);
+            gc.strokeLine(xt, yt, (fx - fy), (fx + fy) / 2.0);
+            profiler.countDraws(1);
+        }
 
-                double ix = (c * TILE_SIZE - r * TILE_SIZE);
-                double iy = (c * TILE_SIZE + r * TILE_SIZE) / 2.0;
+        if (fleet.tool(v) == TOOL_PLOW) {
+            renderMachineIso(gc, trailerX, trailerY, trailerAngle, PLOW_BODY, PLOW_BODY_DARK);
+        } else {
+            renderMachineIso(gc, trailerX, trailerY, trailerAngle, PLANTER_BODY, PLANTER_BODY_DARK);
+        }
+    }
 
-                if (behind ? (iy <= tractorY) : (iy > tractorY)) {
+    private void drawTree(GraphicsContext gc, int i) {
+        if (treeSheet == null)
+            return;
 
-                    if (ix > cameraX - 150 && ix < cameraX + WIDTH + 150 &&
-                            iy > cameraY - 150 && iy < cameraY + HEIGHT + 150) {
+        double tw = TREE_W, th = TREE_H, scale = 0.38;
+        double dw = tw * scale, dh = th * scale;
 
-                        double tw = TREE_W, th = TREE_H, scale = 0.38;
-                        double dw = tw * scale, dh = th * scale;
+        int r = forest.row(i), c = forest.col(i);
+        double nVal = forest.noise(i);
 
-                        double ox = (nVal * 8) - 4;
-                        double oy = (Math.sin(r * 0.5) * 3);
+        double ix = (c * TILE_SIZE - r * TILE_SIZE);
+        double iy = (c * TILE_SIZE + r * TILE_SIZE) / 2.0;
 
-                        gc.setFill(Color.rgb(0, 0, 0, 0.3));
-                        gc.fillOval(ix - dw / 3.0 + ox + 5, iy - 5 + oy, dw * 0.8, dh * 0.2);
+        double ox = (nVal * 8) - 4;
+        double oy = (Math.sin(r * 0.5) * 3);
 
-                        int treeIdx = Math.abs((r * 13 + c * 7) % 8);
+        gc.setFill(TREE_SHADOW);
+        gc.fillOval(ix - dw / 3.0 + ox + 5, iy - 5 + oy, dw * 0.8, dh * 0.2);
 
-                        gc.drawImage(
-                                treeSheet,
-                                (treeIdx % 4) * tw,
-                                (treeIdx / 4) * th,
-                                tw, th,
-                                ix - dw / 2.0 + ox,
-                                iy - dh + 5 + oy,
-                                dw, dh);
-                    }
-                }
-            }
-        }
+        int treeIdx = Math.abs((r * 13 + c * 7) % 8);
+
+        gc.drawImage(
+                treeSheet,
+                (treeIdx % 4) * tw,
+                (treeIdx / 4) * th,
+                tw, th,
+                ix - dw / 2.0 + ox,
+                iy - dh + 5 + oy,
+                dw, dh);
+        profiler.countDraws(2);
+    }
+
+    private void terrainChanged(int minRow, int minCol, int maxRow, int maxCol) {
+        if (minCol - maxRow <= paintedMaxU && maxCol - minRow >= paintedMinU && minRow + minCol <= paintedMaxV
+                && maxRow + maxCol >= paintedMinV)
+            terrainLayer.invalidate();
+    }
+
+    private void renderOverview(GraphicsContext gc, double x, double y, double w, double h) {
+        double half = TILE_SIZE * 2.0;
+        gc.setFill(OVERVIEW_GRASS);
+        gc.fillPolygon(mapOutlineX, mapOutlineY, 4);
+        profiler.countDraws(1);
+
+        double minRow = y / TILE_SIZE - (x + w) / half, maxRow = (y + h) / TILE_SIZE - x / half;
+        double minCol = y / TILE_SIZE + x / half, maxCol = (y + h) / TILE_SIZE + (x + w) / half;
+        miniMap.flush();
+        profiler.countDraws(miniMap.drawIso(gc, TILE_SIZE, TILE_SIZE * zoom, minRow, minCol, maxRow, maxCol));
     }
 
     private void drawRoadLine(GraphicsContext gc, double colPos, Color color, double width) {
         gc.setStroke(color);
         gc.setLineWidth(width);
 
-        double extension = MAP_SIZE * 10;
+        double extension = mapSize * 10;
         double xs = (colPos * TILE_SIZE) + (extension * TILE_SIZE);
         double ys = ((colPos * TILE_SIZE) - (extension * TILE_SIZE)) / 2.0;
         double xe = (colPos * TILE_SIZE) - (extension * TILE_SIZE);
         double ye = ((colPos * TILE_SIZE) + (extension * TILE_SIZE)) / 2.0;
 
         gc.strokeLine(xs, ys + TILE_SIZE / 2.0, xe, ye + TILE_SIZE / 2.0);
+        profiler.countDraws(1);
     }
 
-    private void renderMachineIso(GraphicsContext gc, double tx, double ty, double tA, Color bodyColor) {
+    private void renderMachineIso(GraphicsContext gc, double tx, double ty, double tA, Color bodyColor,
+            Color bodyDark) {
         double ix = tx - ty, iy = (tx + ty) / 2.0;
         gc.save();
         gc.translate(ix, iy);
@@ -1170,30 +1078,33 @@ public class IndustrialFarmGame extends Application {
 
         gc.setFill(bodyColor);
         gc.fillRect(-7, -45, 12, 90);
-        gc.setFill(Color.web("#000000", 0.2));
+        gc.setFill(MACHINE_SHADE);
         gc.fillRect(-7, -45, 4, 90);
+        profiler.countDraws(2);
         for (int i = -40; i <= 40; i += 13) {
-            gc.setFill(Color.web("#222222"));
+            gc.setFill(MACHINE_AXLE);
             gc.fillRect(-10, i - 1, 6, 2);
-            gc.setFill(Color.web("#777777"));
+            gc.setFill(MACHINE_WHEEL);
             gc.fillOval(-14, i - 4, 8, 8);
-            gc.setFill(Color.web("#eeeeee", 0.5));
+            gc.setFill(MACHINE_HUB);
             gc.fillOval(-12, i - 2, 3, 3);
 
-            gc.setFill(bodyColor.darker());
+            gc.setFill(bodyDark);
             gc.fillRect(-8, i - 4, 5, 8);
+            profiler.countDraws(4);
         }
-        gc.setFill(Color.web("#222222"));
+        gc.setFill(MACHINE_AXLE);
         gc.fillOval(-5, -51, 10, 6);
         gc.fillOval(-5, 45, 10, 6);
+        profiler.countDraws(2);
         gc.restore();
     }
 
-    private void renderIsoTractor(GraphicsContext gc, double x, double y) {
+    private void renderIsoTractor(GraphicsContext gc, double x, double y, double heading) {
         if (tractorSheet == null)
             return;
 
-        double fa = (90 - ((smoothedAngle % 360 + 360) % 360) + 360) % 360;
+        double fa = (90 - ((heading % 360 + 360) % 360) + 360) % 360;
         int idx = (int) Math.floor((fa + 7.5) / 15.0) % 24;
         double dw = SPRITE_W * TRACTOR_SCALE;
         double dh = SPRITE_H * TRACTOR_SCALE;
@@ -1203,9 +1114,7 @@ public class IndustrialFarmGame extends Application {
         gc.translate(x + 2, y + (dh * 0.02));
         gc.transform(1, 0, -0.8, 0.5, 0, 0);
         gc.setGlobalAlpha(0.3);
-        javafx.scene.effect.ColorAdjust monochrome = new javafx.scene.effect.ColorAdjust();
-        monochrome.setBrightness(-1.0);
-        gc.setEffect(monochrome);
+        gc.setEffect(silhouette);
         gc.drawImage(tractorSheet,
                 (idx % 6) * SPRITE_W, (idx / 6) * SPRITE_H, SPRITE_W, SPRITE_H,
                 -dw / 2.0, -dh * 0.85, dw, dh);
@@ -1219,33 +1128,42 @@ public class IndustrialFarmGame extends Application {
                 (idx % 6) * SPRITE_W, (idx / 6) * SPRITE_H, SPRITE_W, SPRITE_H,
                 -dw / 2.0, -dh * 0.85, dw, dh);
         gc.restore();
+        profiler.countDraws(2);
+    }
+
+    private void renderMiniMapFrame(GraphicsContext gc) {
+        double sz = 140;
+        gc.setFill(MINIMAP_BACKGROUND);
+        gc.fillOval(WIDTH - sz - 20, 20, sz, sz);
+        profiler.countDraws(1);
     }
 
     private void renderMiniMap(GraphicsContext gc) {
         double sz = 140, mx = WIDTH - sz - 20, my = 20, cx = mx + sz / 2, cy = my + sz / 2;
-        gc.setFill(Color.web("#111111", 0.85));
-        gc.fillOval(mx, my, sz, sz);
         gc.save();
         gc.beginPath();
         gc.arc(cx, cy, sz / 2, sz / 2, 0, 360);
         gc.clip();
-        gc.drawImage(miniMapImage, (tractorX / TILE_SIZE) - miniMapVR, (tractorY / TILE_SIZE) - miniMapVR,
-                miniMapVR * 2, miniMapVR * 2, mx, my, sz, sz);
+        profiler.countDraws(miniMap.draw(gc, viewTractorX / TILE_SIZE, viewTractorY / TILE_SIZE, miniMapVR, mx, my,
+                sz));
         gc.setFill(Color.YELLOW);
         gc.fillOval(cx - 3, cy - 3, 6, 6);
         gc.restore();
         gc.setStroke(Color.WHITE);
         gc.setLineWidth(2);
         gc.strokeOval(mx, my, sz, sz);
+        profiler.countDraws(2);
 
-        drawZoomButton(gc, 14, cx + 50, cy + 50, "+");
-        drawZoomButton(gc, 20, cx + 20, cy + 65, "-");
+        drawZoomButton(gc, FONT_ZOOM_PLUS, cx + 50, cy + 50, "+");
+        drawZoomButton(gc, FONT_ZOOM_MINUS, cx + 20, cy + 65, "-");
     }
 
-    private void renderSpeedometer(GraphicsContext gc) {
+    private void renderSpeedometerDial(GraphicsContext gc) {
         double cx = 120, cy = HEIGHT - 50, r = 90;
-        gc.setFill(Color.web("#111111", 0.9));
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setFill(SPEEDOMETER_BACKGROUND);
         gc.fillArc(cx - r, cy - r, r * 2, r * 2, 0, 180, ArcType.ROUND);
+        profiler.countDraws(1);
         gc.setStroke(Color.WHITE);
         gc.setLineWidth(1.5);
 
@@ -1254,17 +1172,58 @@ public class IndustrialFarmGame extends Application {
             gc.strokeLine(cx + Math.cos(rad) * (r - 5), cy - Math.sin(rad) * (r - 5), cx + Math.cos(rad) * r,
                     cy - Math.sin(rad) * r);
             gc.setFill(Color.GRAY);
-            gc.setFont(Font.font("Arial", 10));
-            gc.fillText(String.valueOf((int) ((i / 180.0) * MAX_SPEED_KMH)), cx + Math.cos(rad) * (r - 18) - 5,
+            gc.setFont(FONT_SPEED_TICK);
+            gc.fillText(SPEED_LABELS[i / 30], cx + Math.cos(rad) * (r - 18) - 5,
                     cy - Math.sin(rad) * (r - 18) + 5);
+            profiler.countDraws(2);
         }
+    }
+
+    private void renderSpeedometer(GraphicsContext gc) {
+        double cx = 120, cy = HEIGHT - 50, r = 90;
         gc.save();
         gc.translate(cx, cy);
-        gc.rotate(-180 + (180 * (Math.abs(currentSpeed) / MAX_SPEED)));
+        gc.rotate(-180 + (180 * (Math.abs(sim.currentSpeed()) / MAX_SPEED)));
         gc.setStroke(Color.RED);
         gc.setLineWidth(3);
         gc.strokeLine(10, 0, r - 12, 0);
         gc.restore();
+        profiler.countDraws(1);
+    }
+
+    private double readRate(String name, double fallback) {
+        String value = getParameters().getNamed().get(name);
+        if (value == null)
+            return fallback;
+
+        try {
+            double rate = Double.parseDouble(value.trim());
+            return rate > 0 ? rate : fallback;
+        } catch (NumberFormatException e) {
+            System.err.println("Valor inválido para --" + name + ": " + value);
+            return fallback;
+        }
+    }
+
+    private java.nio.file.Path readSavePath() {
+        String value = getParameters().getNamed().get("save");
+        if (value != null)
+            return java.nio.file.Paths.get(value);
+
+        return java.nio.file.Paths.get(System.getProperty("user.home"), ".farmsim", "world.sav");
+    }
+
+    private int readMapSize() {
+        String value = getParameters().getNamed().get("map-size");
+        if (value == null)
+            return DEFAULT_MAP_SIZE;
+
+        try {
+            return Math.max(MIN_MAP_SIZE, Math.min(MAX_MAP_SIZE, Integer.parseInt(value.trim())));
+        } catch (NumberFormatException e) {
+            System.err.println("Tamanho de mapa inválido: " + value + ". Usando " + DEFAULT_MAP_SIZE + ".");
+            return DEFAULT_MAP_SIZE;
+        }
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,61 @@
+package com.fazenda;
+
+import java.util.Arrays;
+
+final class IsoView {
+
+    private int firstRow = 0;
+    private int lastRow = -1;
+    private int[] colStart = new int[64];
+    private int[] colEnd = new int[64];
+
+    void cover(double minX, double minY, double maxX, double maxY, double cellSize) {
+        double left = minX / cellSize, right = maxX / cellSize;
+        double top = 2 * minY / cellSize, bottom = 2 * maxY / cellSize;
+
+        int from = (int) Math.floor((top - right - 3) / 2), to = (int) Math.ceil((bottom - left + 1) / 2);
+        if (to - from + 1 > colStart.length) {
+            colStart = Arrays.copyOf(colStart, Math.max(to - from + 1, colStart.length * 2));
+            colEnd = Arrays.copyOf(colEnd, colStart.length);
+        }
+
+        int n = 0;
+        for (int r = from; r <= to; r++) {
+            int c0 = Math.max((int) Math.floor(left + r - 1), (int) Math.floor(top - r - 2)) + 1;
+            int c1 = Math.min((int) Math.ceil(right + r + 1), (int) Math.ceil(bottom - r)) - 1;
+            if (c0 > c1)
+                continue;
+
+            if (n == 0)
+                firstRow = r;
+            colStart[n] = c0;
+            colEnd[n] = c1;
+            n++;
+        }
+        lastRow = n == 0 ? firstRow - 1 : firstRow + n - 1;
+    }
+
+    int firstRow() {
+        return firstRow;
+    }
+
+    int lastRow() {
+        return lastRow;
+    }
+
+    int colStart(int r) {
+        return colStart[r - firstRow];
+    }
+
+    int colEnd(int r) {
+        return colEnd[r - firstRow];
+    }
+
+    int cellCount() {
+        int n = 0;
+        for (int r = firstRow; r <= lastRow; r++) {
+            n += Math.max(0, colEnd(r) - colStart(r) + 1);
+        }
+        return n;
+    }
+}
@@ -0,0 +1,178 @@
+package com.fazenda;
+
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.effect.BlendMode;
+import javafx.scene.effect.DropShadow;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.CycleMethod;
+import javafx.scene.paint.Paint;
+import javafx.scene.paint.RadialGradient;
+import javafx.scene.paint.Stop;
+import javafx.scene.shape.ArcType;
+import javafx.scene.transform.Scale;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+final class LightMap {
+
+    static final int SCALE = 4;
+
+    static final double LIGHT_DISTANCE = 450.0;
+    private static final double AURA_RADIUS = 65;
+    private static final double LAMP_RADIUS = 80;
+    private static final double GLOW_RADIUS = 45;
+    private static final double ISO_FLATTEN = 0.58;
+
+    private static final int HEADLIGHT = 0;
+    private static final int LAMP = 1;
+
+    private final Canvas canvas = new Canvas();
+    private final Color[] ambient = new Color[256];
+    private final Image cone;
+    private final Image aura;
+    private final Image lamp;
+
+    private int count = 0;
+    private int[] kind = new int[16];
+    private double[] lightX = new double[16];
+    private double[] lightY = new double[16];
+    private double[] lightAngle = new double[16];
+    private double[] lightScale = new double[16];
+
+    private long paintedKey;
+    private boolean dirty = true;
+
+    LightMap(double width, double height) {
+        canvas.setManaged(false);
+        canvas.setMouseTransparent(true);
+        canvas.setBlendMode(BlendMode.MULTIPLY);
+        canvas.getTransforms().add(new Scale(SCALE, SCALE, 0, 0));
+        resize(width, height);
+
+        for (int i = 0; i < ambient.length; i++) {
+            double keep = (1 - i / 255.0) * (1 - i / 255.0);
+            ambient[i] = Color.rgb((int) Math.round(255 * keep + 10 * (1 - keep)),
+                    (int) Math.round(255 * keep + 10 * (1 - keep)), (int) Math.round(255 * keep + 30 * (1 - keep)));
+        }
+
+        double glow = GLOW_RADIUS / SCALE, reach = LIGHT_DISTANCE / SCALE;
+        cone = bake(reach + glow * 2, gc -> {
+            gc.setFill(new RadialGradient(0, 0, 0, 0, reach, false, CycleMethod.NO_CYCLE,
+                    new Stop(0.0, Color.rgb(255, 240, 180, 0.85)), new Stop(0.8, Color.rgb(200, 180, 100, 0.3)),
+                    new Stop(1.0, Color.TRANSPARENT)));
+            gc.setEffect(new DropShadow(glow, 0, 0, Color.rgb(255, 230, 150, 0.6)));
+            gc.fillArc(-reach, -reach, reach * 2, reach * 2, -90, 135, ArcType.ROUND);
+        });
+        aura = bake(AURA_RADIUS / SCALE, gc -> fillDisc(gc, AURA_RADIUS / SCALE, Color.rgb(255, 230, 150, 0.6)));
+        lamp = bake(LAMP_RADIUS / SCALE, gc -> fillDisc(gc, LAMP_RADIUS / SCALE, Color.rgb(255, 210, 140, 0.8)));
+    }
+
+    Canvas canvas() {
+        return canvas;
+    }
+
+    void resize(double width, double height) {
+        canvas.setWidth(Math.ceil(width / SCALE) + 1);
+        canvas.setHeight(Math.ceil(height / SCALE) + 1);
+        dirty = true;
+    }
+
+    void clear() {
+        count = 0;
+    }
+
+    void addHeadlight(double screenX, double screenY, double angle, double zoom) {
+        add(HEADLIGHT, screenX, screenY, angle, zoom);
+    }
+
+    void addLamp(double screenX, double screenY, double zoom) {
+        add(LAMP, screenX, screenY, 0, zoom);
+    }
+
+    int paint(double nightAlpha) {
+        int night = (int) Math.round(Math.min(Math.max(nightAlpha, 0), 1) * 255);
+        canvas.setVisible(night > 0);
+        if (night == 0)
+            return 0;
+
+        long key = night;
+        for (int i = 0; i < count; i++) {
+            key = key * 31 + kind[i];
+            key = key * 31 + Double.doubleToLongBits(lightX[i]);
+            key = key * 31 + Double.doubleToLongBits(lightY[i]);
+            key = key * 31 + Double.doubleToLongBits(lightAngle[i]);
+            key = key * 31 + Double.doubleToLongBits(lightScale[i]);
+        }
+        if (!dirty && key == paintedKey)
+            return 0;
+        dirty = false;
+        paintedKey = key;
+
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.setGlobalBlendMode(BlendMode.SRC_OVER);
+        gc.setFill(ambient[night]);
+        gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+
+        int drawn = 1;
+        gc.setGlobalBlendMode(BlendMode.ADD);
+        for (int i = 0; i < count; i++) {
+            gc.save();
+            gc.translate(lightX[i] / SCALE, lightY[i] / SCALE);
+            gc.scale(lightScale[i], lightScale[i] * ISO_FLATTEN);
+            if (kind[i] == HEADLIGHT) {
+                draw(gc, aura);
+                gc.rotate(lightAngle[i] + 30);
+                draw(gc, cone);
+                drawn += 2;
+            } else {
+                draw(gc, lamp);
+                drawn++;
+            }
+            gc.restore();
+        }
+        gc.setGlobalBlendMode(BlendMode.SRC_OVER);
+        return drawn;
+    }
+
+    private void add(int type, double x, double y, double angle, double scale) {
+        if (count == kind.length) {
+            kind = Arrays.copyOf(kind, count * 2);
+            lightX = Arrays.copyOf(lightX, count * 2);
+            lightY = Arrays.copyOf(lightY, count * 2);
+            lightAngle = Arrays.copyOf(lightAngle, count * 2);
+            lightScale = Arrays.copyOf(lightScale, count * 2);
+        }
+        kind[count] = type;
+        lightX[count] = x;
+        lightY[count] = y;
+        lightAngle[count] = angle;
+        lightScale[count] = scale;
+        count++;
+    }
+
+    private static void draw(GraphicsContext gc, Image sprite) {
+        gc.drawImage(sprite, -sprite.getWidth() / 2, -sprite.getHeight() / 2);
+    }
+
+    private static void fillDisc(GraphicsContext gc, double radius, Color center) {
+        Paint fill = new RadialGradient(0, 0, 0, 0, radius, false, CycleMethod.NO_CYCLE, new Stop(0.0, center),
+                new Stop(1.0, Color.TRANSPARENT));
+        gc.setFill(fill);
+        gc.fillOval(-radius, -radius, radius * 2, radius * 2);
+    }
+
+    private static Image bake(double radius, Consumer<GraphicsContext> painter) {
+        int size = (int) Math.ceil(radius * 2);
+        Canvas target = new Canvas(size, size);
+        GraphicsContext gc = target.getGraphicsContext2D();
+        gc.translate(size / 2.0, size / 2.0);
+        painter.accept(gc);
+
+        SnapshotParameters params = new SnapshotParameters();
+        params.setFill(Color.TRANSPARENT);
+        return target.snapshot(params, null);
+    }
+}
@@ -0,0 +1,162 @@
+package com.fazenda;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import java.util.BitSet;
+
+class MiniMap implements TerrainStore.TerrainListener {
+
+    private static final int BLOCK = 64;
+    private static final int MIN_LEVEL_SIZE = 64;
+
+    private final TerrainStore terrain;
+    private final int[] palette;
+    private final int levels;
+    private final int[] sizes;
+    private final int[][] pixels;
+    private final WritableImage[] images;
+    private final BitSet[] dirty;
+    private final int[] scratch = new int[BLOCK * BLOCK];
+    private int version = 0;
+
+    MiniMap(TerrainStore terrain, int[] palette) {
+        this.terrain = terrain;
+        this.palette = palette;
+
+        int n = 1;
+        while ((terrain.size() >> n) >= MIN_LEVEL_SIZE) {
+            n++;
+        }
+        this.levels = n;
+        this.sizes = new int[n];
+        this.pixels = new int[n][];
+        this.images = new WritableImage[n];
+        this.dirty = new BitSet[n];
+
+        for (int k = 0; k < n; k++) {
+            int size = (terrain.size() + (1 << k) - 1) >> k;
+            int blocks = (size + BLOCK - 1) / BLOCK;
+            sizes[k] = size;
+            pixels[k] = k == 0 ? null : new int[size * size];
+            images[k] = new WritableImage(size, size);
+            dirty[k] = new BitSet(blocks * blocks);
+        }
+        rebuild();
+    }
+
+    void rebuild() {
+        terrainChanged(0, 0, terrain.size() - 1, terrain.size() - 1);
+    }
+
+    @Override
+    public void terrainChanged(int minRow, int minCol, int maxRow, int maxCol) {
+        for (int k = 0; k < levels; k++) {
+            int r0 = minRow >> k, c0 = minCol >> k, r1 = maxRow >> k, c1 = maxCol >> k;
+            if (k > 0)
+                downsample(k, r0, c0, r1, c1);
+            markDirty(k, r0, c0, r1, c1);
+        }
+    }
+
+    void flush() {
+        PixelFormat<java.nio.IntBuffer> format = PixelFormat.getIntArgbInstance();
+        for (int k = 0; k < levels; k++) {
+            int size = sizes[k], blocks = (size + BLOCK - 1) / BLOCK;
+            BitSet bits = dirty[k];
+            for (int b = bits.nextSetBit(0); b >= 0; b = bits.nextSetBit(b + 1)) {
+                int y = (b / blocks) * BLOCK, x = (b % blocks) * BLOCK;
+                int w = Math.min(BLOCK, size - x), h = Math.min(BLOCK, size - y);
+
+                if (k == 0) {
+                    for (int r = 0; r < h; r++) {
+                        for (int c = 0; c < w; c++) {
+                            scratch[r * w + c] = palette[terrain.get(y + r, x + c)];
+                        }
+                    }
+                    images[k].getPixelWriter().setPixels(x, y, w, h, format, scratch, 0, w);
+                } else {
+                    images[k].getPixelWriter().setPixels(x, y, w, h, format, pixels[k], y * size + x, size);
+                }
+            }
+            if (!bits.isEmpty())
+                version++;
+            bits.clear();
+        }
+    }
+
+    int version() {
+        return version;
+    }
+
+    int draw(GraphicsContext gc, double centerCol, double centerRow, double radius, double x, double y,
+            double size) {
+        int level = levelFor(2 * radius / size);
+        double scale = 1 << level;
+        gc.drawImage(images[level], (centerCol - radius) / scale, (centerRow - radius) / scale, 2 * radius / scale,
+                2 * radius / scale, x, y, size, size);
+        return 1;
+    }
+
+    int drawIso(GraphicsContext gc, double tileSize, double pixelsPerTile, double minRow, double minCol,
+            double maxRow, double maxCol) {
+        int level = levelFor(1 / pixelsPerTile), size = sizes[level];
+        double scale = 1 << level;
+        int r0 = Math.max(0, (int) Math.floor(minRow / scale)), r1 = Math.min(size, (int) Math.ceil(maxRow / scale));
+        int c0 = Math.max(0, (int) Math.floor(minCol / scale)), c1 = Math.min(size, (int) Math.ceil(maxCol / scale));
+        if (r0 >= r1 || c0 >= c1)
+            return 0;
+
+        double step = tileSize * scale;
+        gc.save();
+        gc.transform(step, step / 2, -step, step / 2, 0, 0);
+        gc.drawImage(images[level], c0, r0, c1 - c0, r1 - r0, c0, r0, c1 - c0, r1 - r0);
+        gc.restore();
+        return 1;
+    }
+
+    private int levelFor(double sourcePerPixel) {
+        int level = 0;
+        while (level + 1 < levels && (1 << (level + 1)) <= sourcePerPixel) {
+            level++;
+        }
+        return level;
+    }
+
+    private void downsample(int k, int r0, int c0, int r1, int c1) {
+        int size = sizes[k], below = sizes[k - 1];
+        int[] out = pixels[k], src = pixels[k - 1];
+
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int a = 0, red = 0, green = 0, blue = 0;
+                for (int dy = 0; dy < 2; dy++) {
+                    int sr = r * 2 + dy;
+                    if (sr >= below)
+                        continue;
+                    for (int dx = 0; dx < 2; dx++) {
+                        int sc = c * 2 + dx;
+                        if (sc >= below)
+                            continue;
+
+                        int argb = k == 1 ? palette[terrain.get(sr, sc)] : src[sr * below + sc];
+                        int alpha = argb >>> 24;
+                        a += alpha;
+                        red += ((argb >> 16) & 0xff) * alpha;
+                        green += ((argb >> 8) & 0xff) * alpha;
+                        blue += (argb & 0xff) * alpha;
+                    }
+                }
+                out[r * size + c] = a == 0 ? 0
+                        : ((a / 4) << 24) | ((red / a) << 16) | ((green / a) << 8) | (blue / a);
+            }
+        }
+    }
+
+    private void markDirty(int k, int r0, int c0, int r1, int c1) {
+        int blocks = (sizes[k] + BLOCK - 1) / BLOCK;
+        for (int br = r0 / BLOCK; br <= r1 / BLOCK; br++) {
+            dirty[k].set(br * blocks + c0 / BLOCK, br * blocks + c1 / BLOCK + 1);
+        }
+    }
+}
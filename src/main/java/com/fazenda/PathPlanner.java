@@ -0,0 +1,285 @@
+package com.fazenda;
+
+import static com.fazenda.FarmSimulation.SHED_H;
+import static com.fazenda.FarmSimulation.SHED_W;
+import static com.fazenda.FarmSimulation.SHED_X;
+import static com.fazenda.FarmSimulation.SHED_Y;
+import static com.fazenda.FarmSimulation.TERRAIN_GRAVEL_ROAD;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+final class PathPlanner {
+
+    static final int CLEARANCE = 4;
+    static final int EDGE = 6;
+    static final int BLOCKED_MIN_ROW = SHED_Y - CLEARANCE;
+    static final int BLOCKED_MAX_ROW = SHED_Y + SHED_H - 1 + CLEARANCE;
+    static final int BLOCKED_MIN_COL = SHED_X - CLEARANCE;
+    static final int BLOCKED_MAX_COL = SHED_X + SHED_W - 1 + CLEARANCE;
+
+    private static final int MAX_SIDE = 512;
+    private static final int MARGIN = 24;
+    private static final int STRAIGHT = 10;
+    private static final int DIAGONAL = 14;
+    private static final int MAX_CACHED_ROUTES = 256;
+    private static final int ROAD_REACH = 4;
+
+    private static final int[] DR = { -1, 1, 0, 0, -1, -1, 1, 1 };
+    private static final int[] DC = { 0, 0, -1, 1, -1, 1, -1, 1 };
+
+    private final TerrainStore terrain;
+    private final int mapSize;
+    private DistanceField roads;
+    private boolean roadsStale = true;
+
+    private final LinkedHashMap<Long, int[]> cache = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, int[]> eldest) {
+            return size() > MAX_CACHED_ROUTES;
+        }
+    };
+
+    private final ExecutorService workers = Executors.newFixedThreadPool(
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2), r -> {
+                Thread t = new Thread(r, "field-planner");
+                t.setDaemon(true);
+                return t;
+            });
+
+    PathPlanner(TerrainStore terrain) {
+        this.terrain = terrain;
+        this.mapSize = terrain.size();
+        terrain.addListener((minRow, minCol, maxRow, maxCol) -> roadsStale = true);
+    }
+
+    CompletableFuture<int[]> route(int fromRow, int fromCol, int toRow, int toCol) {
+        if (roadsStale) {
+            DistanceField fresh = DistanceField.chebyshev(terrain, TERRAIN_GRAVEL_ROAD, ROAD_REACH);
+            roadsStale = false;
+            if (roads == null || !roads.sameDistances(fresh)) {
+                roads = fresh;
+                synchronized (cache) {
+                    cache.clear();
+                }
+            }
+        }
+
+        long key = ((long) fromRow << 48) | ((long) fromCol << 32) | ((long) toRow << 16) | toCol;
+        int[] cached = cached(key);
+        if (cached != null)
+            return CompletableFuture.completedFuture(cached);
+
+        DistanceField field = roads;
+        return CompletableFuture.supplyAsync(() -> {
+            int[] path = search(field, fromRow, fromCol, toRow, toCol);
+            if (path != null) {
+                synchronized (cache) {
+                    cache.put(key, path);
+                }
+            }
+            return path;
+        }, workers);
+    }
+
+    static int[] coverage(int r0, int c0, int r1, int c1, int spacing) {
+        int passes = (r1 - r0) / spacing + 1;
+        int[] points = new int[passes * 4];
+        for (int i = 0; i < passes; i++) {
+            int r = Math.min(r0 + i * spacing, r1);
+            boolean east = (i % 2) == 0;
+            points[i * 4] = r;
+            points[i * 4 + 1] = east ? c0 : c1;
+            points[i * 4 + 2] = r;
+            points[i * 4 + 3] = east ? c1 : c0;
+        }
+        return points;
+    }
+
+    boolean blocked(int r, int c) {
+        if (r < EDGE || c < EDGE || r >= mapSize - EDGE || c >= mapSize - EDGE)
+            return true;
+        return r >= BLOCKED_MIN_ROW && r <= BLOCKED_MAX_ROW && c >= BLOCKED_MIN_COL && c <= BLOCKED_MAX_COL;
+    }
+
+    private int[] cached(long key) {
+        synchronized (cache) {
+            return cache.get(key);
+        }
+    }
+
+    private int[] search(DistanceField field, int fromRow, int fromCol, int toRow, int toCol) {
+        if (blocked(fromRow, fromCol) || blocked(toRow, toCol))
+            return null;
+
+        int minRow = Math.max(0, Math.min(fromRow, toRow) - MARGIN);
+        int minCol = Math.max(0, Math.min(fromCol, toCol) - MARGIN);
+        int maxRow = Math.min(mapSize - 1, Math.max(fromRow, toRow) + MARGIN);
+        int maxCol = Math.min(mapSize - 1, Math.max(fromCol, toCol) + MARGIN);
+        int cell = Math.max(1, (Math.max(maxRow - minRow, maxCol - minCol) + MAX_SIDE) / MAX_SIDE);
+        int rows = (maxRow - minRow) / cell + 1, cols = (maxCol - minCol) / cell + 1;
+
+        boolean[] closed = new boolean[rows * cols];
+        byte[] offRoad = new byte[rows * cols];
+        for (int gr = 0; gr < rows; gr++) {
+            for (int gc = 0; gc < cols; gc++) {
+                int r = minRow + gr * cell, c = minCol + gc * cell;
+                closed[gr * cols + gc] = cellBlocked(r, c, cell);
+                offRoad[gr * cols + gc] = (byte) offRoad(field, Math.min(maxRow, r + cell / 2),
+                        Math.min(maxCol, c + cell / 2));
+            }
+        }
+
+        int start = ((fromRow - minRow) / cell) * cols + (fromCol - minCol) / cell;
+        int goal = ((toRow - minRow) / cell) * cols + (toCol - minCol) / cell;
+        closed[start] = false;
+        closed[goal] = false;
+
+        int[] cost = new int[rows * cols];
+        int[] parent = new int[rows * cols];
+        Arrays.fill(cost, Integer.MAX_VALUE);
+        int[] heap = new int[64];
+        int[] heapKey = new int[64];
+
+        int goalRow = goal / cols, goalCol = goal % cols;
+        cost[start] = 0;
+        parent[start] = -1;
+        heap[0] = start;
+        heapKey[0] = heuristic(start / cols, start % cols, goalRow, goalCol);
+        int heapSize = 1;
+
+        while (heapSize > 0) {
+            int node = heap[0];
+            heapSize--;
+            if (heapSize > 0) {
+                int lastNode = heap[heapSize], lastKey = heapKey[heapSize];
+                int i = 0;
+                while (true) {
+                    int child = i * 2 + 1;
+                    if (child >= heapSize)
+                        break;
+                    if (child + 1 < heapSize && heapKey[child + 1] < heapKey[child])
+                        child++;
+                    if (heapKey[child] >= lastKey)
+                        break;
+                    heap[i] = heap[child];
+                    heapKey[i] = heapKey[child];
+                    i = child;
+                }
+                heap[i] = lastNode;
+                heapKey[i] = lastKey;
+            }
+
+            if (closed[node])
+                continue;
+            closed[node] = true;
+            if (node == goal)
+                break;
+
+            int nr = node / cols, nc = node % cols;
+            for (int d = 0; d < 8; d++) {
+                int r = nr + DR[d], c = nc + DC[d];
+                if (r < 0 || c < 0 || r >= rows || c >= cols)
+                    continue;
+
+                int next = r * cols + c;
+                if (closed[next])
+                    continue;
+                if (d >= 4 && (closed[nr * cols + c] || closed[r * cols + nc]))
+                    continue;
+
+                int g = cost[node] + (d < 4 ? STRAIGHT : DIAGONAL) + offRoad[next];
+                if (g >= cost[next])
+                    continue;
+
+                cost[next] = g;
+                parent[next] = node;
+                if (heapSize == heap.length) {
+                    heap = Arrays.copyOf(heap, heapSize * 2);
+                    heapKey = Arrays.copyOf(heapKey, heapSize * 2);
+                }
+
+                int key = g + heuristic(r, c, goalRow, goalCol);
+                int i = heapSize++;
+                while (i > 0 && heapKey[(i - 1) / 2] > key) {
+                    heap[i] = heap[(i - 1) / 2];
+                    heapKey[i] = heapKey[(i - 1) / 2];
+                    i = (i - 1) / 2;
+                }
+                heap[i] = next;
+                heapKey[i] = key;
+            }
+        }
+
+        if (cost[goal] == Integer.MAX_VALUE)
+            return null;
+
+        int length = 0;
+        for (int n = goal; n >= 0; n = parent[n]) {
+            length++;
+        }
+        int[] cells = new int[length * 2];
+        for (int n = goal, i = length - 1; n >= 0; n = parent[n], i--) {
+            cells[i * 2] = Math.min(maxRow, minRow + (n / cols) * cell + cell / 2);
+            cells[i * 2 + 1] = Math.min(maxCol, minCol + (n % cols) * cell + cell / 2);
+        }
+        cells[0] = fromRow;
+        cells[1] = fromCol;
+        cells[cells.length - 2] = toRow;
+        cells[cells.length - 1] = toCol;
+        return simplify(field, cells);
+    }
+
+    private int[] simplify(DistanceField field, int[] cells) {
+        int n = cells.length / 2;
+        int[] out = new int[cells.length];
+        out[0] = cells[0];
+        out[1] = cells[1];
+        int count = 1, anchor = 0;
+
+        while (anchor < n - 1) {
+            int next = anchor + 1;
+            while (next + 1 < n && clear(field, cells[anchor * 2], cells[anchor * 2 + 1], cells[(next + 1) * 2],
+                    cells[(next + 1) * 2 + 1]))
+                next++;
+
+            out[count * 2] = cells[next * 2];
+            out[count * 2 + 1] = cells[next * 2 + 1];
+            count++;
+            anchor = next;
+        }
+        return Arrays.copyOf(out, count * 2);
+    }
+
+    private boolean clear(DistanceField field, int r0, int c0, int r1, int c1) {
+        int steps = Math.max(Math.abs(r1 - r0), Math.abs(c1 - c0)) * 2;
+        int offRoad = Math.max(offRoad(field, r0, c0), offRoad(field, r1, c1));
+        for (int i = 1; i < steps; i++) {
+            double t = (double) i / steps;
+            int r = (int) Math.round(r0 + (r1 - r0) * t), c = (int) Math.round(c0 + (c1 - c0) * t);
+            if (blocked(r, c) || offRoad(field, r, c) > offRoad)
+                return false;
+        }
+        return true;
+    }
+
+    private boolean cellBlocked(int r0, int c0, int cell) {
+        int r1 = r0 + cell - 1, c1 = c0 + cell - 1;
+        if (r0 < EDGE || c0 < EDGE || r1 >= mapSize - EDGE || c1 >= mapSize - EDGE)
+            return true;
+        return r1 >= BLOCKED_MIN_ROW && r0 <= BLOCKED_MAX_ROW && c1 >= BLOCKED_MIN_COL && c0 <= BLOCKED_MAX_COL;
+    }
+
+    private static int offRoad(DistanceField field, int r, int c) {
+        return Math.min(field.distance(r, c), ROAD_REACH);
+    }
+
+    private static int heuristic(int r, int c, int goalRow, int goalCol) {
+        int dr = Math.abs(r - goalRow), dc = Math.abs(c - goalCol);
+        return STRAIGHT * Math.max(dr, dc) + (DIAGONAL - STRAIGHT) * Math.min(dr, dc);
+    }
+}
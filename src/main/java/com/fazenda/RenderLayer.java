@@ -0,0 +1,54 @@
+package com.fazenda;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+
+final class RenderLayer {
+
+    private final Canvas canvas;
+    private final double pad;
+    private boolean dirty = true;
+
+    RenderLayer(double width, double height, double pad) {
+        this.pad = pad;
+        this.canvas = new Canvas(width + 2 * pad, height + 2 * pad);
+        canvas.setManaged(false);
+        canvas.setMouseTransparent(true);
+        canvas.relocate(-pad, -pad);
+    }
+
+    Canvas canvas() {
+        return canvas;
+    }
+
+    GraphicsContext gc() {
+        return canvas.getGraphicsContext2D();
+    }
+
+    double pad() {
+        return pad;
+    }
+
+    void resize(double width, double height) {
+        canvas.setWidth(width + 2 * pad);
+        canvas.setHeight(height + 2 * pad);
+        dirty = true;
+    }
+
+    void invalidate() {
+        dirty = true;
+    }
+
+    boolean begin(boolean changed) {
+        if (!dirty && !changed)
+            return false;
+
+        dirty = false;
+        canvas.getGraphicsContext2D().clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        return true;
+    }
+
+    void shift(double dx, double dy) {
+        canvas.relocate(-pad + dx, -pad + dy);
+    }
+}
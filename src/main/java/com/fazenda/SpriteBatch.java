@@ -0,0 +1,101 @@
+package com.fazenda;
+
+import java.util.Arrays;
+
+class SpriteBatch {
+
+    private static final double DEPTH_SCALE = 4.0;
+
+    private int count = 0;
+    private int[] kinds = new int[256];
+    private int[] payloads = new int[256];
+    private int[] keys = new int[256];
+
+    private int[] order = new int[256];
+    private int[] scratchOrder = new int[256];
+    private int[] scratchKeys = new int[256];
+    private final int[] histogram = new int[256];
+
+    void clear() {
+        count = 0;
+    }
+
+    void add(int kind, int payload, double depth) {
+        if (count == kinds.length)
+            grow();
+
+        long scaled = (long) Math.floor(depth * DEPTH_SCALE);
+        int key = (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, scaled));
+
+        kinds[count] = kind;
+        payloads[count] = payload;
+        keys[count] = key ^ Integer.MIN_VALUE;
+        count++;
+    }
+
+    void sort() {
+        if (count == 0)
+            return;
+
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+            scratchKeys[i] = keys[i];
+        }
+
+        int[] srcKeys = scratchKeys, dstKeys = keys;
+        int[] srcOrder = order, dstOrder = scratchOrder;
+
+        for (int shift = 0; shift < 32; shift += 8) {
+            Arrays.fill(histogram, 0);
+            for (int i = 0; i < count; i++) {
+                histogram[(srcKeys[i] >>> shift) & 0xff]++;
+            }
+            if (histogram[(srcKeys[0] >>> shift) & 0xff] == count)
+                continue;
+
+            int sum = 0;
+            for (int b = 0; b < 256; b++) {
+                int c = histogram[b];
+                histogram[b] = sum;
+                sum += c;
+            }
+            for (int i = 0; i < count; i++) {
+                int dst = histogram[(srcKeys[i] >>> shift) & 0xff]++;
+                dstKeys[dst] = srcKeys[i];
+                dstOrder[dst] = srcOrder[i];
+            }
+
+            int[] t = srcKeys;
+            srcKeys = dstKeys;
+            dstKeys = t;
+            t = srcOrder;
+            srcOrder = dstOrder;
+            dstOrder = t;
+        }
+
+        if (srcOrder != order)
+            System.arraycopy(srcOrder, 0, order, 0, count);
+    }
+
+    int size() {
+        return count;
+    }
+
+    int kind(int i) {
+        return kinds[order[i]];
+    }
+
+    int payload(int i) {
+        return payloads[order[i]];
+    }
+
+    private void grow() {
+        int cap = kinds.length * 2;
+        kinds = Arrays.copyOf(kinds, cap);
+        payloads = Arrays.copyOf(payloads, cap);
+        keys = Arrays.copyOf(keys, cap);
+        order = Arrays.copyOf(order, cap);
+        scratchOrder = Arrays.copyOf(scratchOrder, cap);
+        scratchKeys = Arrays.copyOf(scratchKeys, cap);
+    }
+}
@@ -0,0 +1,130 @@
+package com.fazenda;
+
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+class TerrainChunkCache {
+
+    interface TilePainter {
+        void paintTile(GraphicsContext gc, int r, int c, double ix, double iy);
+    }
+
+    static final int CHUNK_SIZE = TerrainStore.CHUNK_SIZE;
+
+    private static final int TILE_TOP = 10;
+    private static final int TILE_BOTTOM = 5;
+    private static final int MAX_CACHED_CHUNKS = 160;
+
+    private final int tileSize;
+    private final int imageW;
+    private final int imageH;
+    private final TilePainter painter;
+
+    private final Canvas bakeCanvas;
+    private final SnapshotParameters snapshotParams = new SnapshotParameters();
+
+    private final IsoView view = new IsoView();
+    private int capacity = MAX_CACHED_CHUNKS;
+    private final ArrayDeque<WritableImage> freeImages = new ArrayDeque<>();
+    private final Set<Long> dirty = new HashSet<>();
+    private final LinkedHashMap<Long, WritableImage> chunks = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, WritableImage> eldest) {
+            if (size() > capacity) {
+                freeImages.push(eldest.getValue());
+                dirty.remove(eldest.getKey());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    TerrainChunkCache(int tileSize, TilePainter painter) {
+        this.tileSize = tileSize;
+        this.painter = painter;
+        this.imageW = 2 * CHUNK_SIZE * tileSize;
+        this.imageH = CHUNK_SIZE * tileSize + TILE_TOP + TILE_BOTTOM;
+        this.bakeCanvas = new Canvas(imageW, imageH);
+        snapshotParams.setFill(Color.TRANSPARENT);
+    }
+
+    void invalidateRegion(int minRow, int minCol, int maxRow, int maxCol) {
+        int cr0 = Math.floorDiv(minRow - 1, CHUNK_SIZE), cr1 = Math.floorDiv(maxRow + 1, CHUNK_SIZE);
+        int cc0 = Math.floorDiv(minCol - 1, CHUNK_SIZE), cc1 = Math.floorDiv(maxCol + 1, CHUNK_SIZE);
+        for (int cr = cr0; cr <= cr1; cr++) {
+            for (int cc = cc0; cc <= cc1; cc++) {
+                long key = key(cr, cc);
+                if (chunks.containsKey(key))
+                    dirty.add(key);
+            }
+        }
+    }
+
+    int render(GraphicsContext gc, double cameraX, double cameraY, double width, double height) {
+        int drawn = 0;
+        view.cover(cameraX, cameraY - TILE_BOTTOM, cameraX + width, cameraY + height + TILE_TOP,
+                CHUNK_SIZE * tileSize);
+        capacity = Math.max(MAX_CACHED_CHUNKS, view.cellCount() * 2);
+
+        for (int cr = view.firstRow(); cr <= view.lastRow(); cr++) {
+            for (int cc = view.colStart(cr); cc <= view.colEnd(cr); cc++) {
+                gc.drawImage(chunkImage(cr, cc), originX(cr, cc) - CHUNK_SIZE * tileSize, originY(cr, cc) - TILE_TOP);
+                drawn++;
+            }
+        }
+        return drawn;
+    }
+
+    private WritableImage chunkImage(int cr, int cc) {
+        long key = key(cr, cc);
+        WritableImage img = chunks.get(key);
+        if (img == null) {
+            img = bake(cr, cc, freeImages.poll());
+            chunks.put(key, img);
+        } else if (dirty.remove(key)) {
+            bake(cr, cc, img);
+        }
+        return img;
+    }
+
+    private WritableImage bake(int cr, int cc, WritableImage target) {
+        GraphicsContext bgc = bakeCanvas.getGraphicsContext2D();
+        bgc.clearRect(0, 0, imageW, imageH);
+        bgc.save();
+
+        double ox = originX(cr, cc), oy = originY(cr, cc);
+        bgc.translate(CHUNK_SIZE * tileSize - ox, TILE_TOP - oy);
+
+        int r0 = cr * CHUNK_SIZE, c0 = cc * CHUNK_SIZE;
+        for (int r = r0; r < r0 + CHUNK_SIZE; r++) {
+            for (int c = c0; c < c0 + CHUNK_SIZE; c++) {
+                double ix = (c * tileSize - r * tileSize);
+                double iy = (c * tileSize + r * tileSize) / 2.0;
+                painter.paintTile(bgc, r, c, ix, iy);
+            }
+        }
+
+        bgc.restore();
+        return bakeCanvas.snapshot(snapshotParams, target);
+    }
+
+    private double originX(int cr, int cc) {
+        return (cc - cr) * CHUNK_SIZE * tileSize;
+    }
+
+    private double originY(int cr, int cc) {
+        return (cc + cr) * CHUNK_SIZE * tileSize / 2.0;
+    }
+
+    private static long key(int cr, int cc) {
+        return ((long) cr << 32) | (cc & 0xffffffffL);
+    }
+}
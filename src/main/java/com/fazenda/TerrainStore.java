@@ -0,0 +1,215 @@
+package com.fazenda;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+public class TerrainStore {
+
+    public interface TerrainListener {
+        void terrainChanged(int minRow, int minCol, int maxRow, int maxCol);
+    }
+
+    public static final int CHUNK_SIZE = 16;
+    public static final int CHUNK_AREA = CHUNK_SIZE * CHUNK_SIZE;
+    private static final int CHUNK_SHIFT = 4;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private static final int TERRAIN_MASK = 0x7;
+    private static final int NOISE_SHIFT = 3;
+    private static final int NOISE_MASK = 0x3f << NOISE_SHIFT;
+    private static final int TREE_BIT = 1 << 9;
+
+    private final int size;
+    private final int chunksPerSide;
+    private final short[] tiles;
+
+    private final BitSet dirtyChunks;
+    private final List<TerrainListener> listeners = new ArrayList<>();
+
+    private int batchDepth = 0;
+    private int batchMinRow, batchMinCol, batchMaxRow, batchMaxCol;
+
+    public TerrainStore(int size) {
+        this.size = size;
+        this.chunksPerSide = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        this.tiles = new short[chunksPerSide * chunksPerSide * CHUNK_AREA];
+        this.dirtyChunks = new BitSet(chunksPerSide * chunksPerSide);
+        resetBatchRegion();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int chunksPerSide() {
+        return chunksPerSide;
+    }
+
+    public boolean inBounds(int r, int c) {
+        return r >= 0 && r < size && c >= 0 && c < size;
+    }
+
+    public int chunkCount() {
+        return chunksPerSide * chunksPerSide;
+    }
+
+    public int get(int r, int c) {
+        return tiles[index(r, c)] & TERRAIN_MASK;
+    }
+
+    public int noise(int r, int c) {
+        return (tiles[index(r, c)] & NOISE_MASK) >>> NOISE_SHIFT;
+    }
+
+    public boolean hasTree(int r, int c) {
+        return (tiles[index(r, c)] & TREE_BIT) != 0;
+    }
+
+    public void setNoise(int r, int c, int noise) {
+        int i = index(r, c);
+        tiles[i] = (short) ((tiles[i] & ~NOISE_MASK) | ((noise << NOISE_SHIFT) & NOISE_MASK));
+    }
+
+    public void setTree(int r, int c, boolean tree) {
+        int i = index(r, c);
+        tiles[i] = (short) (tree ? (tiles[i] | TREE_BIT) : (tiles[i] & ~TREE_BIT));
+    }
+
+    public boolean hasNeighbor(int r, int c, int type) {
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                if (dx == 0 && dy == 0)
+                    continue;
+
+                int nr = r + dy;
+                int nc = c + dx;
+
+                if (inBounds(nr, nc) && get(nr, nc) == type)
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    public void set(int r, int c, int type) {
+        int i = index(r, c);
+        if ((tiles[i] & TERRAIN_MASK) == type)
+            return;
+
+        tiles[i] = (short) ((tiles[i] & ~TERRAIN_MASK) | (type & TERRAIN_MASK));
+        markDirty(r, c);
+
+        if (batchDepth > 0) {
+            batchMinRow = Math.min(batchMinRow, r);
+            batchMinCol = Math.min(batchMinCol, c);
+            batchMaxRow = Math.max(batchMaxRow, r);
+            batchMaxCol = Math.max(batchMaxCol, c);
+        } else {
+            fireChanged(r, c, r, c);
+        }
+    }
+
+    public int replaceSpan(int r, int c0, int c1, int from, int to, int[] changedCols) {
+        int changed = 0, first = -1, last = -1;
+        for (int c = c0; c <= c1; c++) {
+            int i = index(r, c);
+            if ((tiles[i] & TERRAIN_MASK) != from)
+                continue;
+
+            tiles[i] = withType(tiles[i], to);
+            dirtyChunks.set(i >>> (2 * CHUNK_SHIFT));
+            if (changedCols != null)
+                changedCols[changed] = c;
+            if (first < 0)
+                first = c;
+            last = c;
+            changed++;
+        }
+
+        if (changed == 0)
+            return 0;
+
+        if (batchDepth > 0) {
+            batchMinRow = Math.min(batchMinRow, r);
+            batchMinCol = Math.min(batchMinCol, first);
+            batchMaxRow = Math.max(batchMaxRow, r);
+            batchMaxCol = Math.max(batchMaxCol, last);
+        } else {
+            fireChanged(r, first, r, last);
+        }
+        return changed;
+    }
+
+    public void beginBatch() {
+        batchDepth++;
+    }
+
+    public void endBatch() {
+        if (batchDepth == 0 || --batchDepth > 0)
+            return;
+
+        if (batchMaxRow >= batchMinRow) {
+            fireChanged(batchMinRow, batchMinCol, batchMaxRow, batchMaxCol);
+        }
+        resetBatchRegion();
+    }
+
+    public void addListener(TerrainListener listener) {
+        listeners.add(listener);
+    }
+
+    public BitSet drainDirtyChunks() {
+        BitSet drained = (BitSet) dirtyChunks.clone();
+        dirtyChunks.clear();
+        return drained;
+    }
+
+    short[] rawTiles() {
+        return tiles;
+    }
+
+    void rawTilesChanged() {
+        dirtyChunks.set(0, chunkCount());
+        fireChanged(0, 0, size - 1, size - 1);
+    }
+
+    static short pack(int type, int noise, boolean tree) {
+        return (short) ((type & TERRAIN_MASK) | ((noise << NOISE_SHIFT) & NOISE_MASK) | (tree ? TREE_BIT : 0));
+    }
+
+    static int typeOf(short tile) {
+        return tile & TERRAIN_MASK;
+    }
+
+    static short withType(short tile, int type) {
+        return (short) ((tile & ~TERRAIN_MASK) | (type & TERRAIN_MASK));
+    }
+
+    private int index(int r, int c) {
+        return indexOf(chunksPerSide, r, c);
+    }
+
+    static int indexOf(int chunksPerSide, int r, int c) {
+        int chunk = (r >> CHUNK_SHIFT) * chunksPerSide + (c >> CHUNK_SHIFT);
+        return (chunk << (2 * CHUNK_SHIFT)) | ((r & CHUNK_MASK) << CHUNK_SHIFT) | (c & CHUNK_MASK);
+    }
+
+    private void markDirty(int r, int c) {
+        int i = index(r, c);
+        dirtyChunks.set(i >>> (2 * CHUNK_SHIFT));
+    }
+
+    private void fireChanged(int minRow, int minCol, int maxRow, int maxCol) {
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).terrainChanged(minRow, minCol, maxRow, maxCol);
+        }
+    }
+
+    private void resetBatchRegion() {
+        batchMinRow = Integer.MAX_VALUE;
+        batchMinCol = Integer.MAX_VALUE;
+        batchMaxRow = Integer.MIN_VALUE;
+        batchMaxCol = Integer.MIN_VALUE;
+    }
+}
@@ -0,0 +1,150 @@
+package com.fazenda;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+
+class TileAtlas {
+
+    private static final int MAGIC = 0x54494c45;
+    private static final int HEADER_INTS = 4;
+    private static final int COLUMNS = 32;
+    private static final int PADDING = 1;
+
+    private final int tileW;
+    private final int tileH;
+    private final int atlasW;
+    private final int atlasH;
+    private final int slots;
+    private final Image image;
+
+    private final int[] regionX = new int[TileSelector.KIND_COUNT * TileSelector.VARIANTS];
+    private final int[] regionY = new int[TileSelector.KIND_COUNT * TileSelector.VARIANTS];
+    private final int[] slotKind;
+    private final int[] slotVariant;
+
+    TileAtlas(TileGenerator generator, Path cacheDir) {
+        this.tileW = generator.tileWidth();
+        this.tileH = generator.tileHeight();
+
+        int count = 0;
+        for (int kind = 0; kind < TileSelector.KIND_COUNT; kind++) {
+            count += TileSelector.variantCount(kind);
+        }
+        this.slots = count;
+        this.slotKind = new int[slots];
+        this.slotVariant = new int[slots];
+        this.atlasW = COLUMNS * (tileW + PADDING);
+        this.atlasH = ((slots + COLUMNS - 1) / COLUMNS) * (tileH + PADDING);
+
+        int slot = 0;
+        for (int kind = 0; kind < TileSelector.KIND_COUNT; kind++) {
+            int variants = TileSelector.variantCount(kind);
+            for (int v = 0; v < TileSelector.VARIANTS; v++) {
+                int tile = kind * TileSelector.VARIANTS + v;
+                if (v >= variants) {
+                    regionX[tile] = regionX[kind * TileSelector.VARIANTS + v % variants];
+                    regionY[tile] = regionY[kind * TileSelector.VARIANTS + v % variants];
+                    continue;
+                }
+
+                regionX[tile] = (slot % COLUMNS) * (tileW + PADDING);
+                regionY[tile] = (slot / COLUMNS) * (tileH + PADDING);
+                slotKind[slot] = kind;
+                slotVariant[slot] = v;
+                slot++;
+            }
+        }
+
+        Path cacheFile = cacheDir.resolve("tiles-v" + TileGenerator.VERSION + "-" + tileW + "x" + tileH + ".bin");
+        int[] pixels = readCache(cacheFile);
+        if (pixels == null) {
+            pixels = generate(generator);
+            writeCache(cacheFile, pixels);
+        }
+
+        WritableImage atlas = new WritableImage(atlasW, atlasH);
+        atlas.getPixelWriter().setPixels(0, 0, atlasW, atlasH, PixelFormat.getIntArgbInstance(), pixels, 0, atlasW);
+        this.image = atlas;
+    }
+
+    void draw(GraphicsContext gc, int tile, double x, double y) {
+        gc.drawImage(image, regionX[tile], regionY[tile], tileW, tileH, x, y, tileW, tileH);
+    }
+
+    private int[] generate(TileGenerator generator) {
+        int[] pixels = new int[atlasW * atlasH];
+        IntStream.range(0, slots).parallel().forEach(slot -> {
+            TileRaster raster = new TileRaster(tileW, tileH);
+            generator.paint(raster, slotKind[slot], slotVariant[slot]);
+
+            int tile = slotKind[slot] * TileSelector.VARIANTS + slotVariant[slot];
+            int x = regionX[tile], y = regionY[tile];
+            for (int row = 0; row < tileH; row++) {
+                System.arraycopy(raster.pixels, row * tileW, pixels, (y + row) * atlasW + x, tileW);
+            }
+        });
+        return pixels;
+    }
+
+    private int[] readCache(Path file) {
+        if (!Files.isRegularFile(file))
+            return null;
+
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long expected = (long) (HEADER_INTS + atlasW * atlasH) * Integer.BYTES;
+            if (ch.size() != expected)
+                return null;
+
+            ByteBuffer buf = ByteBuffer.allocate((int) expected).order(ByteOrder.LITTLE_ENDIAN);
+            while (buf.hasRemaining()) {
+                if (ch.read(buf) < 0)
+                    return null;
+            }
+            buf.flip();
+
+            IntBuffer ints = buf.asIntBuffer();
+            if (ints.get() != MAGIC || ints.get() != TileGenerator.VERSION || ints.get() != atlasW
+                    || ints.get() != atlasH)
+                return null;
+
+            int[] pixels = new int[atlasW * atlasH];
+            ints.get(pixels);
+            return pixels;
+        } catch (IOException e) {
+            System.err.println("Cache de tiles ignorado (" + file + "): " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeCache(Path file, int[] pixels) {
+        try {
+            Files.createDirectories(file.getParent());
+            ByteBuffer buf = ByteBuffer.allocate((HEADER_INTS + pixels.length) * Integer.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            buf.asIntBuffer().put(MAGIC).put(TileGenerator.VERSION).put(atlasW).put(atlasH).put(pixels);
+
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buf.hasRemaining()) {
+                    ch.write(buf);
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Não foi possível gravar o cache de tiles em " + file + ": " + e.getMessage());
+        }
+    }
+}
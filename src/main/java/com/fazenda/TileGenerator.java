@@ -0,0 +1,191 @@
+package com.fazenda;
+
+import javafx.scene.paint.Color;
+import java.util.Random;
+
+final class TileGenerator {
+
+    static final int VERSION = 1;
+
+    private static final Color ROAD_BORDER = Color.web("#808080");
+    private static final Color ROAD = Color.web("#2c2c2c");
+    private static final Color PLOWED = Color.web("#3d2611");
+    private static final Color GRASS = Color.web("#2d4c21");
+    private static final Color GRASS_BLADE = Color.web("#3a5f27");
+    private static final Color DARK_GRASS = Color.web("#1a2b13");
+    private static final Color DARK_GRASS_BLADE = Color.web("#233a1a");
+    private static final Color GRAVEL = Color.web("#453d33");
+    private static final Color WHEAT_BASE = Color.web("#d4af37");
+    private static final Color WHEAT_HIGHLIGHT = Color.web("#f4d06f");
+
+    private static final int PEBBLE_SHADOW = argb(Color.rgb(0, 0, 0, 0.4));
+    private static final int PEBBLE_LIGHT = argb(Color.web("#878787fd"));
+    private static final int PEBBLE_MID = argb(Color.web("#5c5b5b"));
+    private static final int PEBBLE_WARM = argb(Color.web("#756c5c"));
+    private static final int PEBBLE_SHINE = argb(Color.web("#FFFFFF", 0.15));
+    private static final int SOIL_PEBBLE_SHINE = argb(Color.gray(0.5, 0.2));
+
+    private final int tileSize;
+    private final double[] xs;
+    private final double[] ys;
+
+    TileGenerator(int tileSize) {
+        this.tileSize = tileSize;
+        double off = 10;
+        this.xs = new double[] { tileSize, tileSize * 2, tileSize, 0 };
+        this.ys = new double[] { off, tileSize / 2.0 + off, tileSize + off, tileSize / 2.0 + off };
+    }
+
+    int tileWidth() {
+        return tileSize * 2;
+    }
+
+    int tileHeight() {
+        return tileSize + 15;
+    }
+
+    void paint(TileRaster raster, int kind, int variant) {
+        switch (kind) {
+            case TileSelector.KIND_ROAD_BORDER:
+                paintTile(raster, ROAD_BORDER, 0, false, false, false, false, null);
+                break;
+            case TileSelector.KIND_ROAD:
+                paintTile(raster, ROAD, 0, false, false, false, false, null);
+                break;
+            case TileSelector.KIND_PLOWED:
+                paintTile(raster, PLOWED, 0, false, true, false, false, null);
+                break;
+            case TileSelector.KIND_GRASS:
+                paintTile(raster, GRASS, variant, true, false, false, false, GRASS_BLADE);
+                break;
+            case TileSelector.KIND_DARK_GRASS:
+                paintTile(raster, DARK_GRASS, variant, true, false, false, false, DARK_GRASS_BLADE);
+                break;
+            case TileSelector.KIND_PLOWED_PEBBLE:
+                paintTile(raster, PLOWED, variant, false, true, false, false, null);
+                break;
+            case TileSelector.KIND_SEEDLING:
+                paintTile(raster, PLOWED, variant, false, false, true, false, null);
+                break;
+            case TileSelector.KIND_WHEAT:
+                paintTile(raster, PLOWED, variant, false, false, false, true, null);
+                break;
+            case TileSelector.KIND_GRAVEL:
+                paintHeavyGravelTile(raster, GRAVEL, variant);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void paintHeavyGravelTile(TileRaster raster, Color baseColor, int seed) {
+        double off = 10;
+        raster.fillPolygon(xs, ys, 4, argb(baseColor.darker()));
+
+        Random rng = new Random(seed * 999);
+
+        for (int i = 0; i < 250; i++) {
+            double px = rng.nextDouble() * (tileSize * 2);
+            double py = off + rng.nextDouble() * tileSize;
+            raster.fillOval(px, py, 1.5, 1.5, argb(baseColor.deriveColor(rng.nextDouble() * 20 - 10, 1, 0.8, 0.3)));
+        }
+
+        int pebbleCount = 40 + rng.nextInt(20);
+        for (int i = 0; i < pebbleCount; i++) {
+            double px = rng.nextDouble() * (tileSize * 1.8);
+            double py = off + rng.nextDouble() * (tileSize * 0.9);
+            double size = 2.0 + rng.nextDouble() * 3.5;
+
+            raster.fillOval(px + 1, py + 1, size, size * 0.6, PEBBLE_SHADOW);
+
+            double tone = rng.nextDouble();
+            int fill;
+            if (tone > 0.6)
+                fill = PEBBLE_LIGHT;
+            else if (tone > 0.2)
+                fill = PEBBLE_MID;
+            else
+                fill = PEBBLE_WARM;
+
+            raster.fillOval(px, py, size, size * 0.6, fill);
+            raster.fillOval(px + size / 4, py + size / 10, size / 2, size / 4, PEBBLE_SHINE);
+        }
+    }
+
+    private void paintTile(TileRaster raster, Color baseColor, int seed, boolean hasGrass, boolean hasPebbles,
+            boolean hasSeedling, boolean hasWheat, Color detailColor) {
+        double off = 10;
+        raster.fillPolygon(xs, ys, 4, argb(baseColor));
+
+        Random rng = new Random(seed);
+
+        if (hasPebbles) {
+            int pebbleCount = 2 + rng.nextInt(5);
+            for (int i = 0; i < pebbleCount; i++) {
+                double px = 4 + rng.nextDouble() * (tileSize * 1.3);
+                double py = off + 2 + rng.nextDouble() * (tileSize / 2.0);
+                double size = 0.8 + rng.nextDouble() * 1.8;
+                raster.fillOval(px, py, size, size * 0.6, argb(Color.gray(0.15 + rng.nextDouble() * 0.2)));
+                raster.fillOval(px + (size * 0.2), py, size * 0.3, size * 0.3, SOIL_PEBBLE_SHINE);
+            }
+        }
+
+        if (hasSeedling) {
+            double cx = tileSize;
+            double cy = tileSize / 2.0 + off + 3;
+            double hue = 95 + rng.nextDouble() * 40;
+            double sat = 0.4 + rng.nextDouble() * 0.3;
+            double bright = 0.3 + rng.nextDouble() * 0.2;
+            int stroke = argb(Color.hsb(hue, sat, bright));
+            double lineWidth = 1.0 + rng.nextDouble() * 0.4;
+
+            double len1 = 2.5 + rng.nextDouble() * 2.5;
+            double ang1 = Math.toRadians(-100 - rng.nextDouble() * 35);
+            raster.strokeQuad(cx, cy, cx - 2, cy - len1 / 3, cx + Math.cos(ang1) * len1, cy + Math.sin(ang1) * len1,
+                    lineWidth, TileRaster.CAP_ROUND, stroke);
+
+            double len2 = 2.5 + rng.nextDouble() * 2.5;
+            double ang2 = Math.toRadians(-80 + rng.nextDouble() * 35);
+            raster.strokeQuad(cx, cy, cx + 2, cy - len2 / 3, cx + Math.cos(ang2) * len2, cy + Math.sin(ang2) * len2,
+                    lineWidth, TileRaster.CAP_ROUND, stroke);
+        }
+
+        if (hasWheat) {
+            int highlight = argb(WHEAT_HIGHLIGHT);
+            int count = 18 + rng.nextInt(8);
+
+            for (int i = 0; i < count; i++) {
+                double px = 4 + rng.nextDouble() * (tileSize * 1.6);
+                double py = off + 4 + rng.nextDouble() * (tileSize * 0.8);
+                double stalkH = 8 + rng.nextDouble() * 6;
+                double tilt = -2 + rng.nextDouble() * 4;
+
+                int stalk = argb(WHEAT_BASE.deriveColor(0, 1, 0.8 + rng.nextDouble() * 0.2, 1.0));
+                raster.strokeLine(px, py, px + tilt, py - stalkH, 1.5, TileRaster.CAP_BUTT, stalk);
+                raster.strokeLine(px + tilt, py - stalkH, px + tilt + (tilt * 0.2), py - stalkH - 3.5, 2.2,
+                        TileRaster.CAP_BUTT, highlight);
+            }
+        }
+
+        if (hasGrass && detailColor != null) {
+            int count = 6 + rng.nextInt(6);
+            for (int i = 0; i < count; i++) {
+                double rx = 4 + rng.nextDouble() * (tileSize * 1.5),
+                        ry = off + 2 + rng.nextDouble() * (tileSize / 2.0);
+                double gh = 3 + rng.nextDouble() * 5, bend = -2 + rng.nextDouble() * 4;
+                int blade = argb(
+                        detailColor.deriveColor(rng.nextDouble() * 10 - 5, 1, 0.8 + rng.nextDouble() * 0.4, 1));
+                double lineWidth = 1.0 + rng.nextDouble() * 0.5;
+                raster.strokeLine(rx, ry, rx + bend, ry - gh, lineWidth, TileRaster.CAP_SQUARE, blade);
+            }
+        }
+    }
+
+    static int argb(Color c) {
+        int a = (int) Math.round(c.getOpacity() * 255);
+        int r = (int) Math.round(c.getRed() * 255);
+        int g = (int) Math.round(c.getGreen() * 255);
+        int b = (int) Math.round(c.getBlue() * 255);
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+}
@@ -0,0 +1,166 @@
+package com.fazenda;
+
+final class TileRaster {
+
+    static final int CAP_BUTT = 0;
+    static final int CAP_ROUND = 1;
+    static final int CAP_SQUARE = 2;
+
+    private static final int SUBSAMPLES = 4;
+    private static final int SAMPLE_COUNT = SUBSAMPLES * SUBSAMPLES;
+    private static final int CURVE_SEGMENTS = 8;
+
+    final int width;
+    final int height;
+    final int[] pixels;
+
+    TileRaster(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.pixels = new int[width * height];
+    }
+
+    void fillPolygon(double[] xs, double[] ys, int n, int argb) {
+        double minX = xs[0], maxX = xs[0], minY = ys[0], maxY = ys[0];
+        for (int i = 1; i < n; i++) {
+            minX = Math.min(minX, xs[i]);
+            maxX = Math.max(maxX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+
+        int x0 = clampX(minX), x1 = clampX(maxX), y0 = clampY(minY), y1 = clampY(maxY);
+        for (int py = y0; py <= y1; py++) {
+            for (int px = x0; px <= x1; px++) {
+                int hits = 0;
+                for (int s = 0; s < SAMPLE_COUNT; s++) {
+                    if (insidePolygon(xs, ys, n, sampleX(px, s), sampleY(py, s)))
+                        hits++;
+                }
+                blend(px, py, argb, hits);
+            }
+        }
+    }
+
+    void fillOval(double x, double y, double w, double h, int argb) {
+        double rx = w / 2, ry = h / 2, cx = x + rx, cy = y + ry;
+        if (rx <= 0 || ry <= 0)
+            return;
+
+        int x0 = clampX(x), x1 = clampX(x + w), y0 = clampY(y), y1 = clampY(y + h);
+        for (int py = y0; py <= y1; py++) {
+            for (int px = x0; px <= x1; px++) {
+                int hits = 0;
+                for (int s = 0; s < SAMPLE_COUNT; s++) {
+                    double dx = (sampleX(px, s) - cx) / rx, dy = (sampleY(py, s) - cy) / ry;
+                    if (dx * dx + dy * dy <= 1)
+                        hits++;
+                }
+                blend(px, py, argb, hits);
+            }
+        }
+    }
+
+    void strokeLine(double ax, double ay, double bx, double by, double lineWidth, int cap, int argb) {
+        double hw = lineWidth / 2;
+        int x0 = clampX(Math.min(ax, bx) - hw), x1 = clampX(Math.max(ax, bx) + hw);
+        int y0 = clampY(Math.min(ay, by) - hw), y1 = clampY(Math.max(ay, by) + hw);
+
+        double dx = bx - ax, dy = by - ay;
+        double len = Math.sqrt(dx * dx + dy * dy);
+        double ux = len > 0 ? dx / len : 1, uy = len > 0 ? dy / len : 0;
+
+        for (int py = y0; py <= y1; py++) {
+            for (int px = x0; px <= x1; px++) {
+                int hits = 0;
+                for (int s = 0; s < SAMPLE_COUNT; s++) {
+                    double qx = sampleX(px, s) - ax, qy = sampleY(py, s) - ay;
+                    double along = qx * ux + qy * uy;
+                    double across = Math.abs(qx * -uy + qy * ux);
+                    if (onStroke(along, across, len, hw, cap))
+                        hits++;
+                }
+                blend(px, py, argb, hits);
+            }
+        }
+    }
+
+    void strokeQuad(double ax, double ay, double cx, double cy, double bx, double by, double lineWidth, int cap,
+            int argb) {
+        double px = ax, py = ay;
+        for (int i = 1; i <= CURVE_SEGMENTS; i++) {
+            double t = (double) i / CURVE_SEGMENTS, u = 1 - t;
+            double qx = u * u * ax + 2 * u * t * cx + t * t * bx;
+            double qy = u * u * ay + 2 * u * t * cy + t * t * by;
+            strokeLine(px, py, qx, qy, lineWidth, i == 1 || i == CURVE_SEGMENTS ? cap : CAP_ROUND, argb);
+            px = qx;
+            py = qy;
+        }
+    }
+
+    private static boolean onStroke(double along, double across, double len, double hw, int cap) {
+        if (across > hw)
+            return false;
+        switch (cap) {
+            case CAP_ROUND:
+                if (along < 0)
+                    return along * along + across * across <= hw * hw;
+                if (along > len)
+                    return (along - len) * (along - len) + across * across <= hw * hw;
+                return true;
+            case CAP_SQUARE:
+                return along >= -hw && along <= len + hw;
+            default:
+                return along >= 0 && along <= len;
+        }
+    }
+
+    private static boolean insidePolygon(double[] xs, double[] ys, int n, double x, double y) {
+        boolean inside = false;
+        for (int i = 0, j = n - 1; i < n; j = i++) {
+            if ((ys[i] > y) != (ys[j] > y) && x < (xs[j] - xs[i]) * (y - ys[i]) / (ys[j] - ys[i]) + xs[i])
+                inside = !inside;
+        }
+        return inside;
+    }
+
+    private void blend(int px, int py, int argb, int hits) {
+        if (hits == 0)
+            return;
+
+        double sa = ((argb >>> 24) / 255.0) * hits / SAMPLE_COUNT;
+        if (sa <= 0)
+            return;
+
+        int idx = py * width + px;
+        int dst = pixels[idx];
+        double da = (dst >>> 24) / 255.0;
+        double oa = sa + da * (1 - sa);
+
+        int r = mix((argb >> 16) & 0xff, (dst >> 16) & 0xff, sa, da, oa);
+        int g = mix((argb >> 8) & 0xff, (dst >> 8) & 0xff, sa, da, oa);
+        int b = mix(argb & 0xff, dst & 0xff, sa, da, oa);
+        int a = (int) Math.round(oa * 255);
+        pixels[idx] = (a << 24) | (r << 16) | (g << 8) | b;
+    }
+
+    private static int mix(int src, int dst, double sa, double da, double oa) {
+        return (int) Math.round((src * sa + dst * da * (1 - sa)) / oa);
+    }
+
+    private static double sampleX(int px, int s) {
+        return px + ((s % SUBSAMPLES) + 0.5) / SUBSAMPLES;
+    }
+
+    private static double sampleY(int py, int s) {
+        return py + ((s / SUBSAMPLES) + 0.5) / SUBSAMPLES;
+    }
+
+    private int clampX(double x) {
+        return Math.max(0, Math.min(width - 1, (int) Math.floor(x)));
+    }
+
+    private int clampY(double y) {
+        return Math.max(0, Math.min(height - 1, (int) Math.floor(y)));
+    }
+}
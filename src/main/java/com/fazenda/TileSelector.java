@@ -0,0 +1,86 @@
+package com.fazenda;
+
+import static com.fazenda.FarmSimulation.TERRAIN_DIRT;
+import static com.fazenda.FarmSimulation.TERRAIN_GRAVEL_ROAD;
+import static com.fazenda.FarmSimulation.TERRAIN_LIGHT_DIRT;
+import static com.fazenda.FarmSimulation.TERRAIN_PLANTED;
+import static com.fazenda.FarmSimulation.TERRAIN_WHEAT;
+
+public final class TileSelector {
+
+    public static final int KIND_ROAD_BORDER = 0;
+    public static final int KIND_ROAD = 1;
+    public static final int KIND_PLOWED = 2;
+    public static final int KIND_GRASS = 3;
+    public static final int KIND_DARK_GRASS = 4;
+    public static final int KIND_PLOWED_PEBBLE = 5;
+    public static final int KIND_SEEDLING = 6;
+    public static final int KIND_WHEAT = 7;
+    public static final int KIND_GRAVEL = 8;
+    public static final int KIND_COUNT = 9;
+
+    public static final int VARIANTS = 64;
+
+    private TileSelector() {
+    }
+
+    public static int kind(int tile) {
+        return tile / VARIANTS;
+    }
+
+    public static int variant(int tile) {
+        return tile % VARIANTS;
+    }
+
+    public static int variantCount(int kind) {
+        switch (kind) {
+            case KIND_ROAD_BORDER:
+            case KIND_ROAD:
+            case KIND_PLOWED:
+                return 1;
+            case KIND_GRAVEL:
+                return 16;
+            default:
+                return VARIANTS;
+        }
+    }
+
+    public static int select(TerrainStore terrain, int r, int c) {
+        int mapSize = terrain.size();
+
+        if (c >= 0 && c < 12) {
+            return tile((c < 2 || c >= 10) ? KIND_ROAD_BORDER : KIND_ROAD, 0);
+        }
+
+        if (r < 0 || r >= mapSize || c < 12 || c >= mapSize) {
+            return tile(KIND_DARK_GRASS, (int) (WorldGenerator.getNoise(r, c) * 63));
+        }
+
+        int noise = terrain.noise(r, c);
+        int type = terrain.get(r, c);
+
+        if (type == TERRAIN_GRAVEL_ROAD) {
+            return tile(KIND_GRAVEL, noise % 16);
+        }
+
+        int margin = 5;
+        if (c < 12 + margin || c >= mapSize - margin || r < margin || r >= mapSize - margin) {
+            return tile(KIND_DARK_GRASS, noise);
+        }
+
+        if (type == TERRAIN_PLANTED) {
+            return tile(KIND_SEEDLING, noise);
+        } else if (type == TERRAIN_WHEAT) {
+            return tile(KIND_WHEAT, noise);
+        } else if (type == TERRAIN_DIRT) {
+            return noise > 35 ? tile(KIND_PLOWED_PEBBLE, noise) : tile(KIND_PLOWED, 0);
+        } else if (type == TERRAIN_LIGHT_DIRT) {
+            return noise > 30 ? tile(KIND_PLOWED_PEBBLE, noise) : tile(KIND_PLOWED, 0);
+        }
+        return tile(KIND_GRASS, noise);
+    }
+
+    private static int tile(int kind, int variant) {
+        return kind * VARIANTS + variant;
+    }
+}
@@ -0,0 +1,97 @@
+package com.fazenda;
+
+import static com.fazenda.FarmSimulation.TERRAIN_GRASS;
+import static com.fazenda.FarmSimulation.TERRAIN_GRAVEL_ROAD;
+
+public final class TransitionMask implements TerrainStore.TerrainListener {
+
+    public static final int NEAR_GRAVEL = 1;
+    public static final int NEAR_GRASS = 2;
+
+    private static final int BITS = 2;
+    private static final int PER_BYTE = 8 / BITS;
+
+    private final TerrainStore terrain;
+    private final int size;
+    private final byte[] masks;
+
+    private int[] above = new int[0];
+    private int[] current = new int[0];
+    private int[] below = new int[0];
+
+    public TransitionMask(TerrainStore terrain) {
+        this.terrain = terrain;
+        this.size = terrain.size();
+        this.masks = new byte[(int) (((long) size * size + PER_BYTE - 1) / PER_BYTE)];
+        rebuild();
+    }
+
+    public int get(int r, int c) {
+        int i = r * size + c;
+        return (masks[i / PER_BYTE] >> ((i % PER_BYTE) * BITS)) & ((1 << BITS) - 1);
+    }
+
+    public boolean nearGravel(int r, int c) {
+        return (get(r, c) & NEAR_GRAVEL) != 0;
+    }
+
+    public boolean nearGrass(int r, int c) {
+        return (get(r, c) & NEAR_GRASS) != 0;
+    }
+
+    public void rebuild() {
+        recompute(0, 0, size - 1, size - 1);
+    }
+
+    @Override
+    public void terrainChanged(int minRow, int minCol, int maxRow, int maxCol) {
+        recompute(Math.max(0, minRow - 1), Math.max(0, minCol - 1), Math.min(size - 1, maxRow + 1),
+                Math.min(size - 1, maxCol + 1));
+    }
+
+    private void recompute(int r0, int c0, int r1, int c1) {
+        int width = c1 - c0 + 3;
+        if (current.length < width) {
+            above = new int[width];
+            current = new int[width];
+            below = new int[width];
+        }
+
+        loadRow(above, r0 - 1, c0 - 1, width);
+        loadRow(current, r0, c0 - 1, width);
+        for (int r = r0; r <= r1; r++) {
+            loadRow(below, r + 1, c0 - 1, width);
+
+            for (int c = c0, x = 1; c <= c1; c++, x++) {
+                int neighbors = above[x - 1] | above[x] | above[x + 1] | current[x - 1] | current[x + 1]
+                        | below[x - 1] | below[x] | below[x + 1];
+                store(r, c, neighbors);
+            }
+
+            int[] t = above;
+            above = current;
+            current = below;
+            below = t;
+        }
+    }
+
+    private void loadRow(int[] row, int r, int c0, int width) {
+        for (int x = 0; x < width; x++) {
+            int c = c0 + x;
+            if (!terrain.inBounds(r, c)) {
+                row[x] = 0;
+                continue;
+            }
+
+            int type = terrain.get(r, c);
+            row[x] = type == TERRAIN_GRAVEL_ROAD ? NEAR_GRAVEL : type == TERRAIN_GRASS ? NEAR_GRASS : 0;
+        }
+    }
+
+    private void store(int r, int c, int bits) {
+        int i = r * size + c;
+        int shift = (i % PER_BYTE) * BITS;
+        int b = masks[i / PER_BYTE];
+        masks[i / PER_BYTE] = (byte) ((b & ~(((1 << BITS) - 1) << shift)) | (bits << shift));
+    }
+}
@@ -0,0 +1,67 @@
+package com.fazenda;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+final class VectorKernels implements GenerationKernels.Vectorized {
+
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final IntVector IOTA = IntVector.zero(INTS).addIndex(1);
+
+    VectorKernels() {
+    }
+
+    @Override
+    public void noiseRow(int r, int c0, int count, int[] out) {
+        int rowHash = r * 45291;
+        int i = 0;
+        for (int upper = INTS.loopBound(count); i < upper; i += INTS.length()) {
+            IntVector n = IOTA.add(c0 + i).mul(94607).add(rowHash);
+            n = n.lanewise(VectorOperators.LSHL, 13).lanewise(VectorOperators.XOR, n);
+            IntVector v = n.mul(n).mul(15731).add(789221).mul(n).add(1376312589).and(0x7fffffff);
+
+            IntVector w = v.neg().add(Integer.MIN_VALUE);
+            IntVector hi = w.lanewise(VectorOperators.LSHR, 16).mul(63);
+            IntVector lo = w.and(0xffff).mul(63).lanewise(VectorOperators.LSHR, 16);
+            hi.add(lo).lanewise(VectorOperators.LSHR, 15).intoArray(out, i);
+        }
+        for (; i < count; i++) {
+            out[i] = GenerationKernels.noise(r, c0 + i);
+        }
+    }
+
+    @Override
+    public void dilateRows(long[] bits, int above, int row, int below, long[] tmp, long[] out, int offset,
+            int words) {
+        int padded = words + 2;
+        int i = 0;
+        for (int upper = LONGS.loopBound(padded); i < upper; i += LONGS.length()) {
+            LongVector.fromArray(LONGS, bits, above + i)
+                    .or(LongVector.fromArray(LONGS, bits, row + i))
+                    .or(LongVector.fromArray(LONGS, bits, below + i))
+                    .intoArray(tmp, i);
+        }
+        for (; i < padded; i++) {
+            tmp[i] = bits[above + i] | bits[row + i] | bits[below + i];
+        }
+
+        i = 1;
+        for (int upper = 1 + LONGS.loopBound(words); i < upper; i += LONGS.length()) {
+            LongVector v = LongVector.fromArray(LONGS, tmp, i);
+            LongVector prev = LongVector.fromArray(LONGS, tmp, i - 1);
+            LongVector next = LongVector.fromArray(LONGS, tmp, i + 1);
+            v.or(v.lanewise(VectorOperators.LSHL, 1))
+                    .or(prev.lanewise(VectorOperators.LSHR, 63))
+                    .or(v.lanewise(VectorOperators.LSHR, 1))
+                    .or(next.lanewise(VectorOperators.LSHL, 63))
+                    .intoArray(out, offset + i);
+        }
+        for (; i <= words; i++) {
+            long v = tmp[i];
+            out[offset + i] = v | (v << 1) | (tmp[i - 1] >>> 63) | (v >>> 1) | (tmp[i + 1] << 63);
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package com.fazenda;
+
+import static com.fazenda.FarmSimulation.MAX_SPEED;
+import static com.fazenda.FarmSimulation.SHED_H;
+import static com.fazenda.FarmSimulation.SHED_W;
+import static com.fazenda.FarmSimulation.SHED_X;
+import static com.fazenda.FarmSimulation.SHED_Y;
+import static com.fazenda.FarmSimulation.TILE_SIZE;
+import static com.fazenda.FarmSimulation.TOOL_PLANTER;
+import static com.fazenda.FarmSimulation.TOOL_PLOW;
+import static com.fazenda.FarmSimulation.TRAILER_DISTANCE;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+public class VehicleFleet {
+
+    public static final int ACCELERATE = 1;
+    public static final int BRAKE = 2;
+    public static final int STEER_LEFT = 4;
+    public static final int STEER_RIGHT = 8;
+
+    private static final double ACCELERATION = 0.008;
+    private static final double FRICTION = 0.015;
+    private static final double BRAKE_FORCE = 0.04;
+    private static final double BASE_ROTATION = 1.2;
+
+    private static final int PARALLEL_MIN = 256;
+    private static final int BLOCK = 64;
+
+    private static final double SHED_MIN_X = SHED_X * TILE_SIZE;
+    private static final double SHED_MAX_X = (SHED_X + SHED_W) * TILE_SIZE;
+    private static final double SHED_MIN_Y = SHED_Y * TILE_SIZE;
+    private static final double SHED_MAX_Y = (SHED_Y + SHED_H) * TILE_SIZE;
+
+    private final double limit;
+    private int count = 0;
+
+    private double[] x, y, angle, smoothedAngle, speed;
+    private double[] trailerX, trailerY, trailerAngle;
+    private double[] prevX, prevY, prevSmoothedAngle;
+    private double[] prevTrailerX, prevTrailerY, prevTrailerAngle;
+    private boolean[] attached;
+    private boolean[] lowered;
+    private byte[] tool;
+    private byte[] controls;
+
+    public VehicleFleet(int mapSize, int capacity) {
+        this.limit = (mapSize - 1) * TILE_SIZE;
+        allocate(Math.max(capacity, 1));
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int add(double px, double py, double heading) {
+        if (count == x.length)
+            allocate(x.length * 2);
+
+        int i = count++;
+        x[i] = px;
+        y[i] = py;
+        angle[i] = heading;
+        smoothedAngle[i] = heading;
+        speed[i] = 0;
+        trailerX[i] = px - Math.cos(Math.toRadians(heading)) * TRAILER_DISTANCE;
+        trailerY[i] = py - Math.sin(Math.toRadians(heading)) * TRAILER_DISTANCE;
+        trailerAngle[i] = heading;
+        attached[i] = false;
+        lowered[i] = true;
+        tool[i] = TOOL_PLOW;
+        controls[i] = 0;
+        keepPreviousPose(i);
+        return i;
+    }
+
+    public void place(int i, double px, double py, double heading, double tx, double ty, double tAngle,
+            boolean isAttached, int toolType) {
+        x[i] = px;
+        y[i] = py;
+        angle[i] = heading;
+        smoothedAngle[i] = heading;
+        speed[i] = 0;
+        trailerX[i] = tx;
+        trailerY[i] = ty;
+        trailerAngle[i] = tAngle;
+        attached[i] = isAttached;
+        tool[i] = (byte) toolType;
+        keepPreviousPose(i);
+    }
+
+    public void setControls(int i, boolean accelerate, boolean brake, boolean steerLeft, boolean steerRight) {
+        controls[i] = (byte) ((accelerate ? ACCELERATE : 0) | (brake ? BRAKE : 0) | (steerLeft ? STEER_LEFT : 0)
+                | (steerRight ? STEER_RIGHT : 0));
+    }
+
+    public boolean canCouple(int i) {
+        double backX = x[i] - Math.cos(Math.toRadians(angle[i])) * 30;
+        double backY = y[i] - Math.sin(Math.toRadians(angle[i])) * 30;
+        return Math.hypot(backX - trailerX[i], backY - trailerY[i]) < 35;
+    }
+
+    public void toggleCoupling(int i) {
+        if (attached[i])
+            attached[i] = false;
+        else if (canCouple(i))
+            attached[i] = true;
+    }
+
+    public void hitch(int i) {
+        trailerX[i] = x[i] - Math.cos(Math.toRadians(angle[i])) * TRAILER_DISTANCE;
+        trailerY[i] = y[i] - Math.sin(Math.toRadians(angle[i])) * TRAILER_DISTANCE;
+        trailerAngle[i] = angle[i];
+        attached[i] = true;
+        keepPreviousPose(i);
+    }
+
+    public void setLowered(int i, boolean down) {
+        lowered[i] = down;
+    }
+
+    public void toggleTool(int i) {
+        tool[i] = (byte) (tool[i] == TOOL_PLOW ? TOOL_PLANTER : TOOL_PLOW);
+    }
+
+    public void step(double dt) {
+        if (count < PARALLEL_MIN) {
+            stepRange(0, count, dt);
+            return;
+        }
+
+        int blocks = (count + BLOCK - 1) / BLOCK;
+        IntStream.range(0, blocks).parallel()
+                .forEach(b -> stepRange(b * BLOCK, Math.min(count, (b + 1) * BLOCK), dt));
+    }
+
+    boolean trailerMoved(int i) {
+        return trailerX[i] != prevTrailerX[i] || trailerY[i] != prevTrailerY[i]
+                || trailerAngle[i] != prevTrailerAngle[i];
+    }
+
+    private void stepRange(int from, int to, double dt) {
+        for (int i = from; i < to; i++) {
+            keepPreviousPose(i);
+            move(i, dt);
+            if (attached[i])
+                pullTrailer(i);
+        }
+    }
+
+    private void move(int i, double dt) {
+        int keys = controls[i];
+        double v = speed[i];
+
+        if ((keys & ACCELERATE) != 0)
+            v = Math.min(v + ACCELERATION * dt * 60, MAX_SPEED);
+        else if ((keys & BRAKE) != 0) {
+            if (v > 0)
+                v = Math.max(v - BRAKE_FORCE * dt * 60, 0);
+            else
+                v = Math.max(v - ACCELERATION, -MAX_SPEED / 3.0);
+        } else {
+            v *= (1 - FRICTION * dt * 60);
+            if (Math.abs(v) < 0.005)
+                v = 0;
+        }
+
+        double a = angle[i];
+        if (Math.abs(v) > 0.01) {
+            double dir = v > 0 ? 1 : -1;
+            double turn = Math.min(Math.abs(v) * 1.2, BASE_ROTATION);
+            if ((keys & STEER_LEFT) != 0)
+                a -= turn * dir * dt * 60;
+            if ((keys & STEER_RIGHT) != 0)
+                a += turn * dir * dt * 60;
+        }
+        angle[i] = a;
+
+        double diff = a - smoothedAngle[i];
+        while (diff < -180)
+            diff += 360;
+        while (diff > 180)
+            diff -= 360;
+        smoothedAngle[i] += diff * 0.25;
+
+        double rad = Math.toRadians(a);
+        double nextX = x[i] + Math.cos(rad) * v * dt * 60;
+        double nextY = y[i] + Math.sin(rad) * v * dt * 60;
+
+        if (nextX > SHED_MIN_X && nextX < SHED_MAX_X && nextY > SHED_MIN_Y && nextY < SHED_MAX_Y) {
+            v = -v * 0.5;
+        } else if (nextX >= 0 && nextX <= limit && nextY >= 0 && nextY <= limit) {
+            x[i] = nextX;
+            y[i] = nextY;
+        } else {
+            v *= 0.5;
+        }
+        speed[i] = v;
+    }
+
+    private void pullTrailer(int i) {
+        double dx = x[i] - trailerX[i], dy = y[i] - trailerY[i], dist = Math.sqrt(dx * dx + dy * dy);
+        if (dist == TRAILER_DISTANCE)
+            return;
+
+        double f = dist - TRAILER_DISTANCE;
+        double heading = Math.atan2(dy, dx);
+        trailerX[i] += Math.cos(heading) * f;
+        trailerY[i] += Math.sin(heading) * f;
+        double adiff = Math.toDegrees(heading) - trailerAngle[i];
+        while (adiff < -180)
+            adiff += 360;
+        while (adiff > 180)
+            adiff -= 360;
+        if (Math.abs(speed[i]) > 0.05)
+            trailerAngle[i] += adiff * (speed[i] > 0 ? 0.15 : 0.4);
+    }
+
+    private void keepPreviousPose(int i) {
+        prevX[i] = x[i];
+        prevY[i] = y[i];
+        prevSmoothedAngle[i] = smoothedAngle[i];
+        prevTrailerX[i] = trailerX[i];
+        prevTrailerY[i] = trailerY[i];
+        prevTrailerAngle[i] = trailerAngle[i];
+    }
+
+    private void allocate(int capacity) {
+        x = grow(x, capacity);
+        y = grow(y, capacity);
+        angle = grow(angle, capacity);
+        smoothedAngle = grow(smoothedAngle, capacity);
+        speed = grow(speed, capacity);
+        trailerX = grow(trailerX, capacity);
+        trailerY = grow(trailerY, capacity);
+        trailerAngle = grow(trailerAngle, capacity);
+        prevX = grow(prevX, capacity);
+        prevY = grow(prevY, capacity);
+        prevSmoothedAngle = grow(prevSmoothedAngle, capacity);
+        prevTrailerX = grow(prevTrailerX, capacity);
+        prevTrailerY = grow(prevTrailerY, capacity);
+        prevTrailerAngle = grow(prevTrailerAngle, capacity);
+        attached = attached == null ? new boolean[capacity] : Arrays.copyOf(attached, capacity);
+        lowered = lowered == null ? new boolean[capacity] : Arrays.copyOf(lowered, capacity);
+        tool = tool == null ? new byte[capacity] : Arrays.copyOf(tool, capacity);
+        controls = controls == null ? new byte[capacity] : Arrays.copyOf(controls, capacity);
+    }
+
+    private static double[] grow(double[] a, int capacity) {
+        return a == null ? new double[capacity] : Arrays.copyOf(a, capacity);
+    }
+
+    private static double lerp(double from, double to, double alpha) {
+        return from + (to - from) * alpha;
+    }
+
+    private static double lerpAngle(double from, double to, double alpha) {
+        double diff = to - from;
+        while (diff < -180)
+            diff += 360;
+        while (diff > 180)
+            diff -= 360;
+        return from + diff * alpha;
+    }
+
+    public double x(int i) {
+        return x[i];
+    }
+
+    public double y(int i) {
+        return y[i];
+    }
+
+    public double x(int i, double alpha) {
+        return lerp(prevX[i], x[i], alpha);
+    }
+
+    public double y(int i, double alpha) {
+        return lerp(prevY[i], y[i], alpha);
+    }
+
+    public double angle(int i) {
+        return angle[i];
+    }
+
+    public double smoothedAngle(int i) {
+        return smoothedAngle[i];
+    }
+
+    public double smoothedAngle(int i, double alpha) {
+        return lerpAngle(prevSmoothedAngle[i], smoothedAngle[i], alpha);
+    }
+
+    public double speed(int i) {
+        return speed[i];
+    }
+
+    public double trailerX(int i) {
+        return trailerX[i];
+    }
+
+    public double trailerY(int i) {
+        return trailerY[i];
+    }
+
+    public double trailerAngle(int i) {
+        return trailerAngle[i];
+    }
+
+    public double trailerX(int i, double alpha) {
+        return lerp(prevTrailerX[i], trailerX[i], alpha);
+    }
+
+    public double trailerY(int i, double alpha) {
+        return lerp(prevTrailerY[i], trailerY[i], alpha);
+    }
+
+    public double trailerAngle(int i, double alpha) {
+        return lerpAngle(prevTrailerAngle[i], trailerAngle[i], alpha);
+    }
+
+    double prevTrailerX(int i) {
+        return prevTrailerX[i];
+    }
+
+    double prevTrailerY(int i) {
+        return prevTrailerY[i];
+    }
+
+    double prevTrailerAngle(int i) {
+        return prevTrailerAngle[i];
+    }
+
+    public boolean isAttached(int i) {
+        return attached[i];
+    }
+
+    public boolean isLowered(int i) {
+        return lowered[i];
+    }
+
+    public int tool(int i) {
+        return tool[i];
+    }
+}
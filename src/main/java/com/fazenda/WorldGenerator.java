@@ -0,0 +1,143 @@
+package com.fazenda;
+
+import static com.fazenda.FarmSimulation.SHED_H;
+import static com.fazenda.FarmSimulation.SHED_W;
+import static com.fazenda.FarmSimulation.SHED_X;
+import static com.fazenda.FarmSimulation.SHED_Y;
+import static com.fazenda.FarmSimulation.TERRAIN_DIRT;
+import static com.fazenda.FarmSimulation.TERRAIN_GRASS;
+import static com.fazenda.FarmSimulation.TERRAIN_GRAVEL_ROAD;
+import static com.fazenda.FarmSimulation.TERRAIN_LIGHT_DIRT;
+
+import java.util.stream.IntStream;
+
+public final class WorldGenerator {
+
+    private static final int CHUNK = TerrainStore.CHUNK_SIZE;
+
+    private static final int ROAD_START_COL = 12;
+    private static final int ROAD_END_COL = SHED_X + SHED_W / 2 + 4;
+    private static final int ROAD_CENTER_ROW = SHED_Y + SHED_H + 3;
+    private static final int ROAD_HALF_WIDTH = 6;
+
+    private static final int PATIO_CENTER_X = SHED_X + SHED_W / 2;
+    private static final int PATIO_CENTER_Y = SHED_Y + SHED_H / 2;
+    private static final int PATIO_RADIUS = 18;
+    private static final double PATIO_MAX_DEFORMATION = 4.5;
+
+    private WorldGenerator() {
+    }
+
+    public static double getNoise(int x, int y) {
+        int n = x * 45291 + y * 94607;
+        n = (n << 13) ^ n;
+        return (1.0 - ((n * (n * n * 15731 + 789221) + 1376312589) & 0x7fffffff) / 1073741824.0 + 1.0) / 2.0;
+    }
+
+    public static void generate(TerrainStore terrain) {
+        short[] tiles = terrain.rawTiles();
+
+        IntStream.range(0, terrain.chunkCount()).parallel().forEach(chunk -> {
+            baseStage(terrain, tiles, chunk);
+            shapeStage(terrain, tiles, chunk);
+        });
+        borderStage(terrain, tiles);
+
+        terrain.rawTilesChanged();
+    }
+
+    private static void baseStage(TerrainStore terrain, short[] tiles, int chunk) {
+        int size = terrain.size(), cps = terrain.chunksPerSide();
+        int r0 = (chunk / cps) * CHUNK, c0 = (chunk % cps) * CHUNK;
+        int cols = Math.min(CHUNK, size - c0);
+        int[] noise = new int[CHUNK];
+
+        for (int r = r0; r < Math.min(r0 + CHUNK, size); r++) {
+            GenerationKernels.noiseRow(r, c0, cols, noise);
+            for (int i = 0; i < cols; i++) {
+                int c = c0 + i;
+                int idx = TerrainStore.indexOf(cps, r, c);
+                boolean tree = c >= 12 && noise[i] / 63.0 > 0.60;
+                tiles[idx] = TerrainStore.pack(TerrainStore.typeOf(tiles[idx]), noise[i], tree);
+            }
+        }
+    }
+
+    private static void shapeStage(TerrainStore terrain, short[] tiles, int chunk) {
+        int size = terrain.size(), cps = terrain.chunksPerSide();
+        int r0 = (chunk / cps) * CHUNK, c0 = (chunk % cps) * CHUNK;
+        int r1 = Math.min(r0 + CHUNK, size) - 1, c1 = Math.min(c0 + CHUNK, size) - 1;
+
+        for (int c = Math.max(c0, ROAD_START_COL); c <= Math.min(c1, ROAD_END_COL); c++) {
+            int rBase = ROAD_CENTER_ROW + (int) (Math.sin((c - ROAD_START_COL) * 0.15) * 5);
+            for (int r = Math.max(r0, rBase - ROAD_HALF_WIDTH); r <= Math.min(r1, rBase + ROAD_HALF_WIDTH); r++) {
+                setType(tiles, cps, r, c, TERRAIN_GRAVEL_ROAD);
+            }
+        }
+
+        double inner = PATIO_RADIUS - PATIO_MAX_DEFORMATION, outer = PATIO_RADIUS + PATIO_MAX_DEFORMATION;
+        int jStart = Math.max(r0, PATIO_CENTER_Y - PATIO_RADIUS - 5);
+        int jEnd = Math.min(r1, PATIO_CENTER_Y + PATIO_RADIUS + 9);
+        int iStart = Math.max(c0, PATIO_CENTER_X - PATIO_RADIUS - 10);
+        int iEnd = Math.min(c1, PATIO_CENTER_X + PATIO_RADIUS + 9);
+
+        for (int j = jStart; j <= jEnd; j++) {
+            for (int i = iStart; i <= iEnd; i++) {
+                double dx = i - PATIO_CENTER_X;
+                double dy = j - PATIO_CENTER_Y;
+                double d2 = dx * dx + dy * dy;
+                if (d2 >= outer * outer)
+                    continue;
+
+                if (d2 >= inner * inner) {
+                    double angle = Math.atan2(dy, dx);
+                    double deformation = Math.sin(angle * 5) * 2.5 + Math.cos(angle * 3) * 2.0;
+                    if (Math.sqrt(d2) >= PATIO_RADIUS + deformation)
+                        continue;
+                }
+                setType(tiles, cps, j, i, TERRAIN_GRAVEL_ROAD);
+            }
+        }
+    }
+
+    private static void borderStage(TerrainStore terrain, short[] tiles) {
+        int size = terrain.size(), cps = terrain.chunksPerSide();
+        int words = (size + 63) >>> 6, stride = words + 2;
+
+        long[] gravel = new long[(size + 2) * stride];
+        IntStream.range(0, size).parallel().forEach(r -> {
+            int base = (r + 1) * stride + 1;
+            for (int c = 0; c < size; c++) {
+                if (TerrainStore.typeOf(tiles[TerrainStore.indexOf(cps, r, c)]) == TERRAIN_GRAVEL_ROAD)
+                    gravel[base + (c >>> 6)] |= 1L << c;
+            }
+        });
+
+        IntStream.range(0, size).parallel().forEach(r -> {
+            long[] tmp = new long[stride];
+            long[] near = new long[stride];
+            GenerationKernels.dilateRows(gravel, r * stride, (r + 1) * stride, (r + 2) * stride, tmp, near, 0,
+                    words);
+
+            for (int w = 0; w < words; w++) {
+                long bits = near[w + 1];
+                while (bits != 0) {
+                    int c = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    if (c >= size)
+                        break;
+
+                    int idx = TerrainStore.indexOf(cps, r, c);
+                    int type = TerrainStore.typeOf(tiles[idx]);
+                    if (type == TERRAIN_GRASS || type == TERRAIN_DIRT)
+                        tiles[idx] = TerrainStore.withType(tiles[idx], TERRAIN_LIGHT_DIRT);
+                }
+            }
+        });
+    }
+
+    private static void setType(short[] tiles, int cps, int r, int c, int type) {
+        int idx = TerrainStore.indexOf(cps, r, c);
+        tiles[idx] = TerrainStore.withType(tiles[idx], type);
+    }
+}
@@ -0,0 +1,389 @@
+package com.fazenda;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+public class WorldSave {
+
+    public static class State {
+        public double tractorX, tractorY, angle;
+        public double trailerX, trailerY, trailerAngle;
+        public boolean isAttached;
+        public int toolType;
+        public double gameTimeSeconds;
+        public int gameDay, gameMonth, gameYear;
+    }
+
+    private static final int MAGIC = 0x4641524d;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 128;
+    private static final int CHUNK_BYTES = TerrainStore.CHUNK_AREA * Short.BYTES;
+    private static final int JOURNAL_MAGIC = 0x4641524a;
+    private static final int JOURNAL_HEADER = 16;
+    private static final int RECORD_HEADER = Long.BYTES + Integer.BYTES;
+
+    private final Path path;
+    private final Path journal;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "world-save");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile boolean fullWriteNeeded = true;
+    private final BitSet failedChunks = new BitSet();
+    private Future<?> lastWrite;
+
+    public WorldSave(Path path) {
+        this.path = path;
+        this.journal = path.resolveSibling(path.getFileName() + ".journal");
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public boolean exists() {
+        return Files.isRegularFile(path) || Files.isRegularFile(journal);
+    }
+
+    public int readMapSize() throws IOException {
+        replayJournal();
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            buf.order(ByteOrder.LITTLE_ENDIAN);
+            checkHeader(buf);
+            return buf.getInt(8);
+        }
+    }
+
+    public void load(TerrainStore terrain, GrowthScheduler growth, State state) throws IOException {
+        replayJournal();
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            buf.order(ByteOrder.LITTLE_ENDIAN);
+            checkHeader(buf);
+
+            if (buf.getInt(8) != terrain.size() || buf.getInt(12) != TerrainStore.CHUNK_SIZE
+                    || buf.getInt(16) != terrain.chunkCount())
+                throw new IOException("Save does not match a " + terrain.size() + "x" + terrain.size() + " map");
+
+            int growthCount = buf.getInt(20);
+            int growthDay = buf.getInt(24);
+            if (ch.size() < growthOffset(terrain.chunkCount()) + (long) growthCount * 3 * Integer.BYTES)
+                throw new IOException("Save file is truncated");
+
+            buf.position(32);
+            state.tractorX = buf.getDouble();
+            state.tractorY = buf.getDouble();
+            state.angle = buf.getDouble();
+            state.trailerX = buf.getDouble();
+            state.trailerY = buf.getDouble();
+            state.trailerAngle = buf.getDouble();
+            state.gameTimeSeconds = buf.getDouble();
+            state.toolType = buf.getInt();
+            state.gameDay = buf.getInt();
+            state.gameMonth = buf.getInt();
+            state.gameYear = buf.getInt();
+            state.isAttached = buf.get() != 0;
+
+            buf.position(HEADER_SIZE);
+            buf.asShortBuffer().get(terrain.rawTiles());
+
+            int[] tiles = new int[growthCount], stages = new int[growthCount], due = new int[growthCount];
+            buf.position((int) growthOffset(terrain.chunkCount()));
+            for (int i = 0; i < growthCount; i++) {
+                tiles[i] = buf.getInt();
+                stages[i] = buf.getInt();
+                due[i] = buf.getInt();
+            }
+            growth.restore(growthDay, tiles, stages, due, growthCount);
+        }
+
+        terrain.drainDirtyChunks();
+        fullWriteNeeded = false;
+    }
+
+    public Future<?> saveAsync(TerrainStore terrain, GrowthScheduler growth, State state) {
+        Snapshot snap = snapshot(terrain, growth, state);
+        lastWrite = writer.submit(() -> {
+            try {
+                write(snap);
+            } catch (IOException e) {
+                System.err.println("Erro ao salvar o mundo em " + path + ": " + e.getMessage());
+            }
+        });
+        return lastWrite;
+    }
+
+    public void saveNow(TerrainStore terrain, GrowthScheduler growth, State state) throws IOException {
+        Snapshot snap = snapshot(terrain, growth, state);
+        lastWrite = writer.submit(() -> {
+            write(snap);
+            return null;
+        });
+        try {
+            lastWrite.get();
+        } catch (Exception e) {
+            throw new IOException("Erro ao salvar o mundo em " + path, e);
+        }
+    }
+
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class Snapshot {
+        int mapSize, chunkCount;
+        int[] chunkIds;
+        short[] chunkData;
+        int growthDay, growthCount;
+        int[] growthTiles, growthStages, growthDue;
+        State state;
+    }
+
+    private Snapshot snapshot(TerrainStore terrain, GrowthScheduler growth, State state) {
+        Snapshot snap = new Snapshot();
+        snap.mapSize = terrain.size();
+        snap.chunkCount = terrain.chunkCount();
+
+        awaitLastWrite();
+        BitSet dirty = terrain.drainDirtyChunks();
+        synchronized (failedChunks) {
+            dirty.or(failedChunks);
+            failedChunks.clear();
+        }
+        if (fullWriteNeeded || !exists()) {
+            dirty.set(0, snap.chunkCount);
+            fullWriteNeeded = false;
+        }
+
+        short[] raw = terrain.rawTiles();
+        snap.chunkIds = new int[dirty.cardinality()];
+        snap.chunkData = new short[snap.chunkIds.length * TerrainStore.CHUNK_AREA];
+        int n = 0;
+        for (int i = dirty.nextSetBit(0); i >= 0; i = dirty.nextSetBit(i + 1)) {
+            snap.chunkIds[n] = i;
+            System.arraycopy(raw, i * TerrainStore.CHUNK_AREA, snap.chunkData, n * TerrainStore.CHUNK_AREA,
+                    TerrainStore.CHUNK_AREA);
+            n++;
+        }
+
+        snap.growthDay = growth.day();
+        snap.growthCount = growth.growingCount();
+        snap.growthTiles = new int[snap.growthCount];
+        snap.growthStages = new int[snap.growthCount];
+        snap.growthDue = new int[snap.growthCount];
+        growth.copyTo(snap.growthTiles, snap.growthStages, snap.growthDue);
+
+        State copy = new State();
+        copy.tractorX = state.tractorX;
+        copy.tractorY = state.tractorY;
+        copy.angle = state.angle;
+        copy.trailerX = state.trailerX;
+        copy.trailerY = state.trailerY;
+        copy.trailerAngle = state.trailerAngle;
+        copy.isAttached = state.isAttached;
+        copy.toolType = state.toolType;
+        copy.gameTimeSeconds = state.gameTimeSeconds;
+        copy.gameDay = state.gameDay;
+        copy.gameMonth = state.gameMonth;
+        copy.gameYear = state.gameYear;
+        snap.state = copy;
+        return snap;
+    }
+
+    private void awaitLastWrite() {
+        if (lastWrite == null)
+            return;
+
+        try {
+            lastWrite.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // the failed chunks were put back in failedChunks by write()
+        }
+    }
+
+    private void write(Snapshot snap) throws IOException {
+        try {
+            replayJournal();
+            writeJournal(snap);
+            replayJournal();
+        } catch (IOException e) {
+            synchronized (failedChunks) {
+                for (int id : snap.chunkIds) {
+                    failedChunks.set(id);
+                }
+            }
+            throw e;
+        }
+    }
+
+    private void writeJournal(Snapshot snap) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null)
+            Files.createDirectories(parent);
+
+        long growthOffset = growthOffset(snap.chunkCount);
+        int growthBytes = snap.growthCount * 3 * Integer.BYTES;
+        CRC32 crc = new CRC32();
+
+        try (FileChannel ch = FileChannel.open(journal, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.allocate(JOURNAL_HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            buf.putInt(JOURNAL_MAGIC).putInt(VERSION).putLong(growthOffset + growthBytes).flip();
+            append(ch, buf, crc);
+
+            buf = ByteBuffer.allocate(RECORD_HEADER + CHUNK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            for (int n = 0; n < snap.chunkIds.length; n++) {
+                buf.clear();
+                buf.putLong(HEADER_SIZE + (long) snap.chunkIds[n] * CHUNK_BYTES).putInt(CHUNK_BYTES);
+                buf.asShortBuffer().put(snap.chunkData, n * TerrainStore.CHUNK_AREA, TerrainStore.CHUNK_AREA);
+                buf.rewind();
+                append(ch, buf, crc);
+            }
+
+            buf = ByteBuffer.allocate(RECORD_HEADER + growthBytes).order(ByteOrder.LITTLE_ENDIAN);
+            buf.putLong(growthOffset).putInt(growthBytes);
+            for (int i = 0; i < snap.growthCount; i++) {
+                buf.putInt(snap.growthTiles[i]);
+                buf.putInt(snap.growthStages[i]);
+                buf.putInt(snap.growthDue[i]);
+            }
+            buf.flip();
+            append(ch, buf, crc);
+
+            State s = snap.state;
+            buf = ByteBuffer.allocate(RECORD_HEADER + HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buf.putLong(0).putInt(HEADER_SIZE);
+            buf.putInt(MAGIC);
+            buf.putInt(VERSION);
+            buf.putInt(snap.mapSize);
+            buf.putInt(TerrainStore.CHUNK_SIZE);
+            buf.putInt(snap.chunkCount);
+            buf.putInt(snap.growthCount);
+            buf.putInt(snap.growthDay);
+            buf.position(RECORD_HEADER + 32);
+            buf.putDouble(s.tractorX);
+            buf.putDouble(s.tractorY);
+            buf.putDouble(s.angle);
+            buf.putDouble(s.trailerX);
+            buf.putDouble(s.trailerY);
+            buf.putDouble(s.trailerAngle);
+            buf.putDouble(s.gameTimeSeconds);
+            buf.putInt(s.toolType);
+            buf.putInt(s.gameDay);
+            buf.putInt(s.gameMonth);
+            buf.putInt(s.gameYear);
+            buf.put((byte) (s.isAttached ? 1 : 0));
+            buf.rewind();
+            append(ch, buf, crc);
+
+            buf = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            buf.putLong(crc.getValue()).flip();
+            while (buf.hasRemaining()) {
+                ch.write(buf);
+            }
+            ch.force(true);
+        }
+    }
+
+    private void replayJournal() throws IOException {
+        if (!Files.isRegularFile(journal))
+            return;
+
+        try (FileChannel log = FileChannel.open(journal, StandardOpenOption.READ)) {
+            long size = journalSaveSize(log);
+            if (size >= 0) {
+                try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE)) {
+                    MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, ch.size()));
+                    ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER).order(ByteOrder.LITTLE_ENDIAN);
+                    long pos = JOURNAL_HEADER, end = log.size() - Long.BYTES;
+                    while (pos < end) {
+                        record.clear();
+                        readFully(log, record, pos);
+                        int offset = (int) record.getLong(0), length = record.getInt(8);
+                        readFully(log, buf.slice(offset, length), pos + RECORD_HEADER);
+                        pos += RECORD_HEADER + length;
+                    }
+                    buf.force();
+                }
+            }
+        }
+        Files.delete(journal);
+    }
+
+    private static long journalSaveSize(FileChannel log) throws IOException {
+        long end = log.size() - Long.BYTES;
+        if (end < JOURNAL_HEADER)
+            return -1;
+
+        ByteBuffer buf = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+        CRC32 crc = new CRC32();
+        for (long pos = 0; pos < end; pos += buf.limit()) {
+            buf.clear().limit((int) Math.min(buf.capacity(), end - pos));
+            readFully(log, buf, pos);
+            buf.flip();
+            crc.update(buf);
+        }
+
+        buf.clear().limit(Long.BYTES);
+        readFully(log, buf, end);
+        if (buf.getLong(0) != crc.getValue())
+            return -1;
+
+        buf.clear().limit(JOURNAL_HEADER);
+        readFully(log, buf, 0);
+        if (buf.getInt(0) != JOURNAL_MAGIC || buf.getInt(4) != VERSION)
+            return -1;
+        return buf.getLong(8);
+    }
+
+    private static void append(FileChannel ch, ByteBuffer buf, CRC32 crc) throws IOException {
+        crc.update(buf.duplicate());
+        while (buf.hasRemaining()) {
+            ch.write(buf);
+        }
+    }
+
+    private static void readFully(FileChannel ch, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            int n = ch.read(buf, position);
+            if (n < 0)
+                throw new IOException("Save journal is truncated");
+            position += n;
+        }
+    }
+
+    private static long growthOffset(int chunkCount) {
+        return HEADER_SIZE + (long) chunkCount * CHUNK_BYTES;
+    }
+
+    private static void checkHeader(MappedByteBuffer buf) throws IOException {
+        if (buf.getInt(0) != MAGIC)
+            throw new IOException("Not a farm save file");
+        if (buf.getInt(4) != VERSION)
+            throw new IOException("Unsupported save version " + buf.getInt(4));
+    }
+}